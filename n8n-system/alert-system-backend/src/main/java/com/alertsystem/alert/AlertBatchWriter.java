@@ -0,0 +1,347 @@
+package com.alertsystem.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 告警批量寫入器
+ * 接收端只把告警放入有界佇列，背景執行緒按批取出後以 PostgreSQL COPY 寫入 alert_history，
+ * 非 PostgreSQL 連線時改用多行 INSERT。佇列滿時直接拒絕，由調用方回報給上報來源重試。
+ * 寫入失敗時按指數退避重試，重試期間佇列不再消化，滿後接收端即回應 503 形成背壓；
+ * 重試用盡的批次以 NDJSON 寫入死信目錄，格式與批量上報相同，可直接重新上報。
+ */
+@Slf4j
+@Component
+public class AlertBatchWriter {
+
+    private static final String COLUMNS =
+            "system_id, alert_type, severity, title, message, source_data, received_at, status, fingerprint, last_received_at";
+    private static final String COPY_SQL =
+            "COPY alert_history (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+    private static final String INSERT_PREFIX = "INSERT INTO alert_history (" + COLUMNS + ") VALUES ";
+    private static final String INSERT_ROW = "(?, ?, ?, ?, ?, ?, ?, 'NEW', ?, ?)";
+    private static final String STATUS_NEW = "NEW";
+
+    /**
+     * 多行 INSERT 每條語句的行數，避免超過 JDBC 參數數量上限
+     */
+    private static final int INSERT_ROWS_PER_STATEMENT = 500;
+
+    private static final DateTimeFormatter DEAD_LETTER_FILE = DateTimeFormatter.ofPattern("'alerts-'yyyyMMdd'.ndjson'");
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final AlertDeduplicator deduplicator;
+    private final BlockingQueue<AlertRecord> queue;
+    private final WriteMode writeMode;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final Path deadLetterDir;
+
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+    private final Counter retriedCounter;
+    private final Counter deadLetteredCounter;
+    private final Counter droppedCounter;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public AlertBatchWriter(DataSource dataSource,
+                            ObjectMapper objectMapper,
+                            AlertDeduplicator deduplicator,
+                            MeterRegistry meterRegistry,
+                            @Value("${alert.ingest.queue-capacity:100000}") int queueCapacity,
+                            @Value("${alert.ingest.write-mode:AUTO}") WriteMode writeMode,
+                            @Value("${alert.ingest.batch-size:1000}") int batchSize,
+                            @Value("${alert.ingest.flush-interval:200}") long flushIntervalMillis,
+                            @Value("${alert.ingest.retry.max-attempts:5}") int maxAttempts,
+                            @Value("${alert.ingest.retry.backoff:500}") long retryBackoffMillis,
+                            @Value("${alert.ingest.dead-letter-dir:logs/alert-dead-letter}") Path deadLetterDir) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.deduplicator = deduplicator;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writeMode = writeMode;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.deadLetterDir = deadLetterDir;
+
+        Gauge.builder("alert.ingest.queue.size", queue, BlockingQueue::size)
+                .description("待寫入的告警數量")
+                .register(meterRegistry);
+        Gauge.builder("alert.ingest.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .description("告警寫入佇列剩餘容量")
+                .register(meterRegistry);
+        this.writtenCounter = meterRegistry.counter("alert.ingest.written");
+        this.failedCounter = meterRegistry.counter("alert.ingest.write.failed");
+        this.retriedCounter = meterRegistry.counter("alert.ingest.write.retried");
+        this.deadLetteredCounter = meterRegistry.counter("alert.ingest.dead-lettered");
+        this.droppedCounter = meterRegistry.counter("alert.ingest.dropped");
+        this.flushTimer = meterRegistry.timer("alert.ingest.flush");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "alert-batch-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 關閉時停止接收並寫完剩餘告警
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(flushIntervalMillis * 5);
+        flushRemaining();
+    }
+
+    /**
+     * 放入寫入佇列，佇列已滿時返回 false
+     */
+    boolean offer(AlertRecord record) {
+        return running && queue.offer(record);
+    }
+
+    private void drainLoop() {
+        List<AlertRecord> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                AlertRecord first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private synchronized void flushRemaining() {
+        List<AlertRecord> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * 寫入一個批次，失敗時按退避時間重試；重試用盡或正在關閉時轉入死信
+     */
+    void writeBatch(List<AlertRecord> batch) {
+        long backoff = retryBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write(batch);
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxAttempts || !running) {
+                    log.error("批量寫入告警失敗 {} 次，共 {} 筆轉入死信: {}", attempt, batch.size(), e.getMessage());
+                    deadLetter(batch);
+                    return;
+                }
+                log.warn("批量寫入告警失敗，{} 毫秒後第 {} 次重試: {}", backoff, attempt + 1, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                deadLetter(batch);
+                return;
+            }
+            retriedCounter.increment();
+            backoff *= 2;
+        }
+    }
+
+    /**
+     * 以批量上報的 NDJSON 格式追加到當日的死信檔案
+     */
+    private synchronized void deadLetter(List<AlertRecord> batch) {
+        Path file = deadLetterDir.resolve(LocalDate.now().format(DEAD_LETTER_FILE));
+        try {
+            StringBuilder lines = new StringBuilder(batch.size() * 256);
+            for (AlertRecord record : batch) {
+                lines.append(objectMapper.writeValueAsString(toPayload(record))).append('\n');
+            }
+            Files.createDirectories(deadLetterDir);
+            Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            deadLetteredCounter.increment(batch.size());
+        } catch (IOException e) {
+            droppedCounter.increment(batch.size());
+            log.error("寫入告警死信檔案 {} 失敗，{} 筆告警遺失: {}", file, batch.size(), e.getMessage());
+        }
+        // 資料庫中沒有這些列，撤銷去重登記讓重新上報的告警能再次寫入
+        deduplicator.release(batch);
+    }
+
+    private ObjectNode toPayload(AlertRecord record) throws IOException {
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.put("systemId", record.systemId());
+        payload.put("alertType", record.alertType());
+        payload.put("severity", record.severity());
+        payload.put("title", record.title());
+        payload.put("message", record.message());
+        payload.put("fingerprint", record.fingerprint());
+        if (record.sourceData() != null) {
+            payload.set("sourceData", objectMapper.readTree(record.sourceData()));
+        }
+        payload.put("receivedAt", record.receivedAt().toString());
+        return payload;
+    }
+
+    /**
+     * 在調用執行緒上同步寫入，返回時資料已提交；供需要寫入確認的來源（如 MQTT QoS1）使用
+     */
+    void write(List<AlertRecord> batch) throws Exception {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Connection connection = null;
+        try {
+            connection = DataSourceUtils.getConnection(dataSource);
+            Connection target = connection;
+            flushTimer.recordCallable(() -> {
+                if (useCopy(target)) {
+                    copy(target, batch);
+                } else {
+                    insert(target, batch);
+                }
+                return null;
+            });
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            throw e;
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private boolean useCopy(Connection connection) throws SQLException {
+        return switch (writeMode) {
+            case COPY -> true;
+            case INSERT -> false;
+            case AUTO -> connection.isWrapperFor(PGConnection.class);
+        };
+    }
+
+    private void copy(Connection connection, List<AlertRecord> batch) throws Exception {
+        StringBuilder csv = new StringBuilder(batch.size() * 256);
+        for (AlertRecord record : batch) {
+            csv.append(record.systemId() != null ? record.systemId().toString() : "").append(',');
+            appendCsv(csv, record.alertType()).append(',');
+            appendCsv(csv, record.severity()).append(',');
+            appendCsv(csv, record.title()).append(',');
+            appendCsv(csv, record.message()).append(',');
+            appendCsv(csv, record.sourceData()).append(',');
+            String receivedAt = Timestamp.valueOf(record.receivedAt()).toString();
+            appendCsv(csv, receivedAt).append(',');
+            appendCsv(csv, STATUS_NEW).append(',');
+            appendCsv(csv, record.fingerprint()).append(',');
+            appendCsv(csv, receivedAt).append('\n');
+        }
+        connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL, new StringReader(csv.toString()));
+    }
+
+    /**
+     * CSV 欄位一律加引號；未加引號的空值在 COPY csv 格式中表示 NULL
+     */
+    private static StringBuilder appendCsv(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    private void insert(Connection connection, List<AlertRecord> batch) throws SQLException {
+        for (int from = 0; from < batch.size(); from += INSERT_ROWS_PER_STATEMENT) {
+            List<AlertRecord> chunk = batch.subList(from, Math.min(from + INSERT_ROWS_PER_STATEMENT, batch.size()));
+            String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(chunk.size(), INSERT_ROW));
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                int index = 1;
+                for (AlertRecord record : chunk) {
+                    if (record.systemId() != null) {
+                        ps.setLong(index++, record.systemId());
+                    } else {
+                        ps.setNull(index++, Types.BIGINT);
+                    }
+                    ps.setString(index++, record.alertType());
+                    ps.setString(index++, record.severity());
+                    ps.setString(index++, record.title());
+                    ps.setString(index++, record.message());
+                    // 以未指定類型綁定，由資料庫轉換為 JSONB
+                    ps.setObject(index++, record.sourceData(), Types.OTHER);
+                    Timestamp receivedAt = Timestamp.valueOf(record.receivedAt());
+                    ps.setTimestamp(index++, receivedAt);
+                    ps.setString(index++, record.fingerprint());
+                    ps.setTimestamp(index++, receivedAt);
+                }
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * 寫入方式
+     */
+    public enum WriteMode {
+        /** PostgreSQL 連線使用 COPY，其他資料庫使用多行 INSERT */
+        AUTO,
+        COPY,
+        INSERT
+    }
+}
@@ -0,0 +1,310 @@
+package com.alertsystem.alert;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 告警去重
+ * 同一指紋在同一時間窗口內只寫入第一筆，之後的重複告警只累加次數，定期以 UPDATE
+ * 併入該列的 occurrence_count 與 last_received_at。
+ * 本地以分片的併發映射保存開啟中的 (指紋, 窗口)，每個節點首次遇到時在 Redis 以 SET NX
+ * 登記第一筆的接收時間，跨節點的重複告警因此都會併入同一列。
+ * 第一筆未能寫入資料庫 (佇列已滿、轉入死信或停止時放棄) 時以 {@link #release} 撤銷登記，
+ * 重新上報或代理補投的告警才會再次寫入，而不是被當作重複併入不存在的列。
+ */
+@Slf4j
+@Component
+public class AlertDeduplicator {
+
+    private static final String KEY_PREFIX = "alert:dedup:";
+
+    /**
+     * 登記窗口內的第一筆告警，已存在時返回既有的登記值
+     */
+    private static final RedisScript<String> CLAIM_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then
+                return ARGV[1]
+            end
+            return redis.call('GET', KEYS[1])
+            """, String.class);
+
+    /**
+     * 只刪除本節點登記的值，窗口過期後其他節點的新登記不受影響
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+                return redis.call('DEL', KEYS[1])
+            end
+            return 0
+            """, Long.class);
+
+    private static final String FOLD_SQL = """
+            UPDATE alert_history
+            SET occurrence_count = occurrence_count + ?,
+                last_received_at = GREATEST(COALESCE(last_received_at, received_at), ?)
+            WHERE fingerprint = ? AND received_at = ?
+            """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final List<Map<WindowKey, OpenFingerprint>> shards;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong claimSequence = new AtomicLong();
+
+    private final Counter uniqueCounter;
+    private final Counter duplicateCounter;
+    private final Counter foldedCounter;
+    private final Counter lostCounter;
+
+    public AlertDeduplicator(StringRedisTemplate redisTemplate,
+                             JdbcTemplate jdbcTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${alert.dedup.enabled:true}") boolean enabled,
+                             @Value("${alert.dedup.window:5m}") Duration window,
+                             @Value("${alert.dedup.shards:16}") int shardCount) {
+        this.redisTemplate = redisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.windowMillis = window.toMillis();
+        this.shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ConcurrentHashMap<>());
+        }
+
+        Gauge.builder("alert.dedup.open", this, AlertDeduplicator::openCount)
+                .description("開啟中的告警指紋數量")
+                .register(meterRegistry);
+        this.uniqueCounter = meterRegistry.counter("alert.dedup.unique");
+        this.duplicateCounter = meterRegistry.counter("alert.dedup.duplicate");
+        this.foldedCounter = meterRegistry.counter("alert.dedup.folded");
+        this.lostCounter = meterRegistry.counter("alert.dedup.lost");
+    }
+
+    /**
+     * 判斷告警是否需要寫入新列；重複告警只累加次數並返回 false
+     */
+    public boolean admit(AlertRecord record) {
+        if (!enabled || record.fingerprint() == null) {
+            return true;
+        }
+        long bucket = toEpochMillis(record.receivedAt()) / windowMillis;
+        WindowKey key = new WindowKey(record.fingerprint(), bucket);
+        Map<WindowKey, OpenFingerprint> shard = shardOf(key);
+
+        OpenFingerprint open = shard.get(key);
+        if (open == null) {
+            // 登記在 computeIfAbsent 內進行，同一鍵只有一個執行緒登記，准入者的登記必定保留在分片中
+            boolean[] created = new boolean[1];
+            open = shard.computeIfAbsent(key, k -> {
+                created[0] = true;
+                return claim(k, record.receivedAt());
+            });
+            if (created[0] && open.owner()) {
+                uniqueCounter.increment();
+                return true;
+            }
+        }
+        open.fold(record.receivedAt());
+        duplicateCounter.increment();
+        return false;
+    }
+
+    /**
+     * 撤銷已准入但未能寫入的告警的登記；期間併入的重複次數沒有列可併入，計為遺失
+     */
+    public void release(List<AlertRecord> records) {
+        if (!enabled) {
+            return;
+        }
+        for (AlertRecord record : records) {
+            if (record.fingerprint() == null) {
+                continue;
+            }
+            WindowKey key = new WindowKey(record.fingerprint(), toEpochMillis(record.receivedAt()) / windowMillis);
+            Map<WindowKey, OpenFingerprint> shard = shardOf(key);
+            OpenFingerprint open = shard.get(key);
+            // 只撤銷本節點為這一筆建立的登記
+            if (open == null || !open.owner() || !open.firstReceivedAt().equals(record.receivedAt())
+                    || !shard.remove(key, open)) {
+                continue;
+            }
+            long pending = open.drain();
+            if (pending > 0) {
+                lostCounter.increment(pending);
+                log.warn("告警指紋 {} 的第一筆未能寫入，{} 次重複未能併入", key.fingerprint(), pending);
+            }
+            try {
+                redisTemplate.execute(RELEASE_SCRIPT, List.of(redisKey(key)), open.claimValue());
+            } catch (Exception e) {
+                log.debug("Redis 撤銷告警去重登記失敗: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 將累計的重複次數併入第一筆告警所在的列
+     * 第一筆可能尚在寫入佇列中，更新不到時保留次數待下次重試，窗口結束後仍失敗則放棄
+     */
+    @Scheduled(fixedDelayString = "${alert.dedup.flush-interval:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        long currentBucket = System.currentTimeMillis() / windowMillis;
+        for (Map<WindowKey, OpenFingerprint> shard : shards) {
+            List<Map.Entry<WindowKey, OpenFingerprint>> pending = new ArrayList<>();
+            for (Map.Entry<WindowKey, OpenFingerprint> entry : shard.entrySet()) {
+                if (entry.getValue().pendingCount() > 0) {
+                    pending.add(entry);
+                }
+            }
+            for (Map.Entry<WindowKey, OpenFingerprint> entry : pending) {
+                foldInto(entry.getKey(), entry.getValue());
+            }
+            // 保留上一個窗口，讓延遲到達的重複告警與未寫入的次數還有一次機會
+            shard.entrySet().removeIf(entry -> {
+                boolean expired = entry.getKey().bucket() < currentBucket - 1;
+                if (expired && entry.getValue().pendingCount() > 0) {
+                    lostCounter.increment(entry.getValue().pendingCount());
+                    log.warn("告警指紋 {} 的 {} 次重複未能併入", entry.getKey().fingerprint(),
+                            entry.getValue().pendingCount());
+                }
+                return expired;
+            });
+        }
+    }
+
+    private void foldInto(WindowKey key, OpenFingerprint open) {
+        long count = open.drain();
+        if (count == 0) {
+            return;
+        }
+        try {
+            int updated = jdbcTemplate.update(FOLD_SQL, count, Timestamp.valueOf(open.lastReceivedAt()),
+                    key.fingerprint(), Timestamp.valueOf(open.firstReceivedAt()));
+            if (updated > 0) {
+                foldedCounter.increment(count);
+                return;
+            }
+        } catch (Exception e) {
+            log.debug("併入重複告警失敗: {}", e.getMessage());
+        }
+        open.restore(count);
+    }
+
+    /**
+     * 在 Redis 登記窗口內的第一筆告警；Redis 不可用時退化為僅本節點去重
+     */
+    private OpenFingerprint claim(WindowKey key, LocalDateTime receivedAt) {
+        String value = receivedAt + "|" + nodeId + ":" + claimSequence.incrementAndGet();
+        try {
+            String owner = redisTemplate.execute(CLAIM_SCRIPT, List.of(redisKey(key)),
+                    value, String.valueOf(windowMillis * 2));
+            if (owner != null && !owner.equals(value)) {
+                LocalDateTime firstReceivedAt = LocalDateTime.parse(owner.substring(0, owner.indexOf('|')));
+                return new OpenFingerprint(firstReceivedAt, null);
+            }
+        } catch (Exception e) {
+            log.debug("Redis 告警去重登記失敗，僅本節點去重: {}", e.getMessage());
+        }
+        return new OpenFingerprint(receivedAt, value);
+    }
+
+    private static String redisKey(WindowKey key) {
+        return KEY_PREFIX + key.fingerprint() + ":" + key.bucket();
+    }
+
+    private Map<WindowKey, OpenFingerprint> shardOf(WindowKey key) {
+        return shards.get(Math.floorMod(key.hashCode(), shards.size()));
+    }
+
+    private long openCount() {
+        long count = 0;
+        for (Map<WindowKey, OpenFingerprint> shard : shards) {
+            count += shard.size();
+        }
+        return count;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record WindowKey(String fingerprint, long bucket) {
+    }
+
+    /**
+     * 開啟中的指紋：第一筆的接收時間與尚未併入資料庫的重複次數；本節點登記時保存登記值供撤銷
+     */
+    private static final class OpenFingerprint {
+
+        private final LocalDateTime firstReceivedAt;
+        private final String claimValue;
+        private final AtomicLong pending = new AtomicLong();
+        private volatile LocalDateTime lastReceivedAt;
+
+        private OpenFingerprint(LocalDateTime firstReceivedAt, String claimValue) {
+            this.firstReceivedAt = firstReceivedAt;
+            this.claimValue = claimValue;
+            this.lastReceivedAt = firstReceivedAt;
+        }
+
+        private boolean owner() {
+            return claimValue != null;
+        }
+
+        private String claimValue() {
+            return claimValue;
+        }
+
+        private LocalDateTime firstReceivedAt() {
+            return firstReceivedAt;
+        }
+
+        private LocalDateTime lastReceivedAt() {
+            return lastReceivedAt;
+        }
+
+        private void fold(LocalDateTime receivedAt) {
+            if (receivedAt.isAfter(lastReceivedAt)) {
+                lastReceivedAt = receivedAt;
+            }
+            pending.incrementAndGet();
+        }
+
+        private long pendingCount() {
+            return pending.get();
+        }
+
+        private long drain() {
+            return pending.getAndSet(0);
+        }
+
+        private void restore(long count) {
+            pending.addAndGet(count);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.alertsystem.alert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * 告警指紋
+ * 以 (系統, 類型, 對象) 計算 SHA-256 取前 16 位元組的十六進位字串，
+ * 類型與對象忽略大小寫及前後空白，同一來源的重複告警得到相同指紋。
+ */
+final class AlertFingerprint {
+
+    private static final char SEPARATOR = '\u001f';
+
+    private AlertFingerprint() {
+    }
+
+    static String of(Long systemId, String alertType, String target) {
+        String key = (systemId != null ? systemId.toString() : "")
+                + SEPARATOR + normalize(alertType)
+                + SEPARATOR + normalize(target);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
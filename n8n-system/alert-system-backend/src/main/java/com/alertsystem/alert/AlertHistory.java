@@ -0,0 +1,59 @@
+package com.alertsystem.alert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * 告警記錄，對應按 received_at 分區的 alert_history
+ * 寫入由 {@link AlertBatchWriter} 以 COPY 完成，實體只用於查詢
+ */
+@Data
+@Entity
+@Table(name = "alert_history")
+public class AlertHistory {
+
+    @Id
+    private Long id;
+
+    @Column(name = "system_id")
+    private Long systemId;
+
+    @Column(name = "alert_type", nullable = false, length = 50)
+    private String alertType;
+
+    @Column(name = "severity", nullable = false, length = 20)
+    private String severity;
+
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    @Column(name = "message", columnDefinition = "TEXT")
+    private String message;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "source_data", columnDefinition = "jsonb")
+    private JsonNode sourceData;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    @Column(name = "status", length = 20)
+    private String status;
+
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+
+    @Column(name = "occurrence_count", nullable = false)
+    private Integer occurrenceCount;
+
+    @Column(name = "last_received_at")
+    private LocalDateTime lastReceivedAt;
+}
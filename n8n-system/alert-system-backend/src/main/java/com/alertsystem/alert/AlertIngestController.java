@@ -0,0 +1,65 @@
+package com.alertsystem.alert;
+
+import com.alertsystem.dto.common.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@Tag(name = "告警接收", description = "監控來源上報告警")
+@RestController
+@RequestMapping("/api/alerts")
+@RequiredArgsConstructor
+public class AlertIngestController {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    private final AlertIngestService alertIngestService;
+
+    @Value("${alert.ingest.retry-after:5}")
+    private long retryAfterSeconds;
+
+    @Operation(summary = "上報單筆告警", description = "寫入佇列已滿時返回 503 及 Retry-After")
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse<AlertIngestResult>> ingest(@RequestBody AlertPayload payload) {
+        AlertIngestResult result = alertIngestService.ingest(payload);
+        if (result.isAccepted()) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(result, "告警已接收"));
+        }
+        if (result.getStatus() == AlertIngestResult.Status.UNAVAILABLE) {
+            return unavailable().body(ApiResponse.error(result.getMessage(), result));
+        }
+        return ResponseEntity.badRequest().body(ApiResponse.error(result.getMessage(), result));
+    }
+
+    @Operation(summary = "批量上報告警",
+            description = "請求體為 NDJSON，每行一筆告警，返回每行的接收結果；有行因佇列已滿未接收時返回 503 及 Retry-After")
+    @PostMapping(value = "/batch", consumes = NDJSON)
+    public ResponseEntity<ApiResponse<AlertIngestResponse>> ingestBatch(InputStream body) throws IOException {
+        AlertIngestResponse response = alertIngestService.ingestNdjson(body);
+        if (response.getUnavailable() > 0) {
+            String message = String.format("寫入佇列已滿，%d 筆未接收，請於 %d 秒後重送狀態為 UNAVAILABLE 的行",
+                    response.getUnavailable(), retryAfterSeconds);
+            return unavailable().body(ApiResponse.error(message, response));
+        }
+        String message = String.format("已接收 %d 筆 (其中 %d 筆為重複)，拒絕 %d 筆",
+                response.getAccepted(), response.getDeduplicated(), response.getRejected());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(response, message));
+    }
+
+    private ResponseEntity.BodyBuilder unavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+    }
+}
@@ -0,0 +1,39 @@
+package com.alertsystem.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量告警接收結果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertIngestResponse {
+
+    private int received;
+    private int accepted;
+    private int rejected;
+    private int deduplicated;
+
+    /**
+     * 因寫入佇列已滿未接收的筆數，這些行可於 Retry-After 後重送
+     */
+    private int unavailable;
+    private List<AlertIngestResult> results;
+
+    public static AlertIngestResponse of(List<AlertIngestResult> results) {
+        int accepted = (int) results.stream().filter(AlertIngestResult::isAccepted).count();
+        int deduplicated = count(results, AlertIngestResult.Status.DEDUPLICATED);
+        int unavailable = count(results, AlertIngestResult.Status.UNAVAILABLE);
+        return new AlertIngestResponse(results.size(), accepted, results.size() - accepted - unavailable,
+                deduplicated, unavailable, results);
+    }
+
+    private static int count(List<AlertIngestResult> results, AlertIngestResult.Status status) {
+        return (int) results.stream().filter(result -> result.getStatus() == status).count();
+    }
+}
@@ -0,0 +1,52 @@
+package com.alertsystem.alert;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 單筆告警的接收結果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertIngestResult {
+
+    /**
+     * 批量上報時為 NDJSON 行號（從 1 開始），單筆上報時為 1
+     */
+    private int index;
+    private Status status;
+    private String message;
+
+    public static AlertIngestResult accepted(int index) {
+        return new AlertIngestResult(index, Status.ACCEPTED, null);
+    }
+
+    public static AlertIngestResult deduplicated(int index) {
+        return new AlertIngestResult(index, Status.DEDUPLICATED, "重複告警，已併入既有記錄");
+    }
+
+    public static AlertIngestResult rejected(int index, String message) {
+        return new AlertIngestResult(index, Status.REJECTED, message);
+    }
+
+    public static AlertIngestResult unavailable(int index) {
+        return new AlertIngestResult(index, Status.UNAVAILABLE, "告警寫入佇列已滿，請稍後重試");
+    }
+
+    public boolean isAccepted() {
+        return status == Status.ACCEPTED || status == Status.DEDUPLICATED;
+    }
+
+    public enum Status {
+        /** 已通過驗證並進入寫入佇列 */
+        ACCEPTED,
+        /** 窗口內的重複告警，只累加既有記錄的次數 */
+        DEDUPLICATED,
+        /** 格式錯誤或驗證失敗，重送也不會接收 */
+        REJECTED,
+        /** 寫入佇列已滿或服務正在關閉，可於 Retry-After 後重送 */
+        UNAVAILABLE
+    }
+}
@@ -0,0 +1,167 @@
+package com.alertsystem.alert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 告警接收服務
+ * 驗證上報內容並經 {@link AlertDeduplicator} 去重後交給 {@link AlertBatchWriter} 批量寫入，
+ * 每筆告警返回獨立的接收結果。
+ */
+@Slf4j
+@Service
+public class AlertIngestService {
+
+    private final AlertNdjsonParser ndjsonParser;
+    private final AlertBatchWriter batchWriter;
+    private final AlertDeduplicator deduplicator;
+    private final AlertPartitionManager partitionManager;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter unavailableCounter;
+
+    public AlertIngestService(AlertNdjsonParser ndjsonParser,
+                              AlertBatchWriter batchWriter,
+                              AlertDeduplicator deduplicator,
+                              AlertPartitionManager partitionManager,
+                              Validator validator,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.ndjsonParser = ndjsonParser;
+        this.batchWriter = batchWriter;
+        this.deduplicator = deduplicator;
+        this.partitionManager = partitionManager;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.acceptedCounter = meterRegistry.counter("alert.ingest.accepted");
+        this.rejectedCounter = meterRegistry.counter("alert.ingest.rejected");
+        this.unavailableCounter = meterRegistry.counter("alert.ingest.unavailable");
+    }
+
+    /**
+     * 接收單筆告警
+     */
+    public AlertIngestResult ingest(AlertPayload payload) {
+        return accept(1, payload, LocalDateTime.now());
+    }
+
+    /**
+     * 接收 NDJSON 批量告警，逐行解析並放入寫入佇列
+     */
+    public AlertIngestResponse ingestNdjson(InputStream input) throws IOException {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        List<AlertIngestResult> results = new ArrayList<>();
+        ndjsonParser.parse(input, new AlertNdjsonParser.Handler() {
+            @Override
+            public void onItem(int lineNumber, AlertPayload payload) {
+                results.add(accept(lineNumber, payload, receivedAt));
+            }
+
+            @Override
+            public void onError(int lineNumber, String message) {
+                results.add(reject(lineNumber, message));
+            }
+        });
+        AlertIngestResponse response = AlertIngestResponse.of(results);
+        log.debug("批量接收告警: 共 {} 筆，接收 {} 筆 (去重 {} 筆)，拒絕 {} 筆，佇列已滿 {} 筆",
+                response.getReceived(), response.getAccepted(), response.getDeduplicated(), response.getRejected(),
+                response.getUnavailable());
+        return response;
+    }
+
+    private AlertIngestResult accept(int index, AlertPayload payload, LocalDateTime receivedAt) {
+        Validated validated = validate(payload, receivedAt);
+        if (validated.error() != null) {
+            return reject(index, validated.error());
+        }
+        if (!deduplicator.admit(validated.record())) {
+            return AlertIngestResult.deduplicated(index);
+        }
+        if (!batchWriter.offer(validated.record())) {
+            // 未寫入就撤銷去重登記，客戶端重試時才不會被當作重複
+            deduplicator.release(List.of(validated.record()));
+            unavailableCounter.increment();
+            return AlertIngestResult.unavailable(index);
+        }
+        acceptedCounter.increment();
+        return AlertIngestResult.accepted(index);
+    }
+
+    /**
+     * 驗證告警並轉換為待寫入記錄，失敗時 error 為原因
+     */
+    Validated validate(AlertPayload payload, LocalDateTime receivedAt) {
+        if (payload == null) {
+            return Validated.invalid("告警內容不能為空");
+        }
+        Set<ConstraintViolation<AlertPayload>> violations = validator.validate(payload);
+        if (!violations.isEmpty()) {
+            return Validated.invalid(violations.stream()
+                    .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining("; ")));
+        }
+        try {
+            AlertRecord record = toRecord(payload, receivedAt);
+            if (!partitionManager.accepts(record.receivedAt())) {
+                return Validated.invalid("告警時間超出保留期限或預建分區範圍");
+            }
+            return new Validated(record, null);
+        } catch (JsonProcessingException e) {
+            return Validated.invalid("來源資料無法序列化: " + e.getOriginalMessage());
+        }
+    }
+
+    private AlertIngestResult reject(int index, String message) {
+        rejectedCounter.increment();
+        return AlertIngestResult.rejected(index, message);
+    }
+
+    private AlertRecord toRecord(AlertPayload payload, LocalDateTime receivedAt) throws JsonProcessingException {
+        String sourceData = payload.getSourceData() != null && !payload.getSourceData().isNull()
+                ? objectMapper.writeValueAsString(payload.getSourceData())
+                : null;
+        String alertType = payload.getAlertType().trim();
+        String title = payload.getTitle().trim();
+        String fingerprint = StringUtils.hasText(payload.getFingerprint())
+                ? payload.getFingerprint().trim()
+                : AlertFingerprint.of(payload.getSystemId(), alertType,
+                        StringUtils.hasText(payload.getTarget()) ? payload.getTarget() : title);
+        return new AlertRecord(
+                payload.getSystemId(),
+                alertType,
+                payload.getSeverity().toUpperCase(Locale.ROOT),
+                title,
+                payload.getMessage(),
+                sourceData,
+                payload.getReceivedAt() != null ? payload.getReceivedAt() : receivedAt,
+                fingerprint);
+    }
+
+    record Validated(AlertRecord record, String error) {
+
+        static Validated invalid(String error) {
+            return new Validated(null, error);
+        }
+    }
+}
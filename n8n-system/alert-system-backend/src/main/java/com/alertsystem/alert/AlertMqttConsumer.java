@@ -0,0 +1,336 @@
+package com.alertsystem.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.paho.mqttv5.client.IMqttToken;
+import org.eclipse.paho.mqttv5.client.MqttActionListener;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
+import org.eclipse.paho.mqttv5.client.MqttCallback;
+import org.eclipse.paho.mqttv5.client.MqttConnectionOptions;
+import org.eclipse.paho.mqttv5.client.MqttDisconnectResponse;
+import org.eclipse.paho.mqttv5.client.persist.MemoryPersistence;
+import org.eclipse.paho.mqttv5.common.MqttException;
+import org.eclipse.paho.mqttv5.common.MqttMessage;
+import org.eclipse.paho.mqttv5.common.MqttSubscription;
+import org.eclipse.paho.mqttv5.common.packet.MqttProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EMQX 告警訂閱者
+ * 以共享訂閱 ($share/群組/主題) 讓多個節點分攤同一主題的流量，並以 MQTT 5 Receive Maximum
+ * 限制代理推送的未確認訊息數。訊息按主題雜湊分配到分區執行緒，同一主題保持順序；
+ * 分區批量寫入 alert_history 提交後才手動回覆 QoS1 PUBACK，寫入失敗則退避重試，
+ * 未確認的訊息會在重連或由其他共享訂閱成員重新投遞。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "alert.mqtt.enabled", havingValue = "true")
+public class AlertMqttConsumer implements MqttCallback {
+
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 5000;
+
+    private final AlertIngestService alertIngestService;
+    private final AlertBatchWriter batchWriter;
+    private final AlertDeduplicator deduplicator;
+    private final ObjectReader payloadReader;
+
+    private final String serverUri;
+    private final String clientId;
+    private final String username;
+    private final String password;
+    private final String[] topics;
+    private final String shareGroup;
+    private final int receiveMaximum;
+    private final long sessionExpiryInterval;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    private final Partition[] partitions;
+    private final Counter receivedCounter;
+    private final Counter invalidCounter;
+    private final Counter retryCounter;
+
+    private volatile boolean running;
+    private MqttAsyncClient client;
+
+    public AlertMqttConsumer(AlertIngestService alertIngestService,
+                             AlertBatchWriter batchWriter,
+                             AlertDeduplicator deduplicator,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${alert.mqtt.server-uri:tcp://localhost:1883}") String serverUri,
+                             @Value("${alert.mqtt.client-id:}") String clientId,
+                             @Value("${alert.mqtt.username:}") String username,
+                             @Value("${alert.mqtt.password:}") String password,
+                             @Value("${alert.mqtt.topics:alerts/#}") String[] topics,
+                             @Value("${alert.mqtt.share-group:alert-backend}") String shareGroup,
+                             @Value("${alert.mqtt.receive-maximum:1000}") int receiveMaximum,
+                             @Value("${alert.mqtt.session-expiry-interval:300}") long sessionExpiryInterval,
+                             @Value("${alert.mqtt.partitions:4}") int partitionCount,
+                             @Value("${alert.mqtt.batch-size:500}") int batchSize,
+                             @Value("${alert.mqtt.flush-interval:100}") long flushIntervalMillis) {
+        this.alertIngestService = alertIngestService;
+        this.batchWriter = batchWriter;
+        this.deduplicator = deduplicator;
+        this.payloadReader = objectMapper.readerFor(AlertPayload.class);
+        this.serverUri = serverUri;
+        this.clientId = StringUtils.hasText(clientId) ? clientId : defaultClientId();
+        this.username = username;
+        this.password = password;
+        this.topics = topics;
+        this.shareGroup = shareGroup;
+        this.receiveMaximum = receiveMaximum;
+        this.sessionExpiryInterval = sessionExpiryInterval;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+
+        // 分區佇列容量等於在途窗口，代理最多推送 receiveMaximum 筆未確認訊息，put 不會長時間阻塞
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(i, new ArrayBlockingQueue<>(receiveMaximum));
+        }
+        this.receivedCounter = meterRegistry.counter("alert.mqtt.received");
+        this.invalidCounter = meterRegistry.counter("alert.mqtt.invalid");
+        this.retryCounter = meterRegistry.counter("alert.mqtt.write.retry");
+    }
+
+    @PostConstruct
+    public void start() throws MqttException {
+        running = true;
+        for (Partition partition : partitions) {
+            partition.worker = new Thread(() -> drainLoop(partition), "alert-mqtt-partition-" + partition.index);
+            partition.worker.setDaemon(true);
+            partition.worker.start();
+        }
+
+        client = new MqttAsyncClient(serverUri, clientId, new MemoryPersistence());
+        client.setManualAcks(true);
+        client.setCallback(this);
+        connect();
+    }
+
+    /**
+     * 自動重連只在曾經連線成功後生效，首次連線失敗需自行排程重試
+     */
+    private void connect() {
+        if (!running) {
+            return;
+        }
+        log.info("MQTT 告警訂閱者連線中: {} (clientId={})", serverUri, clientId);
+        try {
+            client.connect(connectionOptions(), null, new MqttActionListener() {
+                @Override
+                public void onSuccess(IMqttToken token) {
+                }
+
+                @Override
+                public void onFailure(IMqttToken token, Throwable exception) {
+                    log.warn("MQTT 連線失敗，{} 毫秒後重試: {}", MAX_RETRY_BACKOFF_MILLIS, exception.getMessage());
+                    CompletableFuture.delayedExecutor(MAX_RETRY_BACKOFF_MILLIS, TimeUnit.MILLISECONDS)
+                            .execute(AlertMqttConsumer.this::connect);
+                }
+            });
+        } catch (MqttException e) {
+            log.error("MQTT 連線失敗: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 關閉時斷線並停止分區執行緒，尚未寫入或未確認的訊息由代理重新投遞
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        try {
+            if (client.isConnected()) {
+                client.disconnect().waitForCompletion(flushIntervalMillis * 5);
+            }
+            client.close();
+        } catch (MqttException e) {
+            log.warn("MQTT 斷線失敗: {}", e.getMessage());
+        }
+        for (Partition partition : partitions) {
+            partition.worker.join(flushIntervalMillis * 5);
+        }
+    }
+
+    private MqttConnectionOptions connectionOptions() {
+        MqttConnectionOptions options = new MqttConnectionOptions();
+        options.setCleanStart(false);
+        options.setSessionExpiryInterval(sessionExpiryInterval);
+        options.setReceiveMaximum(receiveMaximum);
+        options.setAutomaticReconnect(true);
+        if (StringUtils.hasText(username)) {
+            options.setUserName(username);
+            options.setPassword(password.getBytes(StandardCharsets.UTF_8));
+        }
+        return options;
+    }
+
+    @Override
+    public void connectComplete(boolean reconnect, String serverURI) {
+        MqttSubscription[] subscriptions = Arrays.stream(topics)
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .map(topic -> new MqttSubscription("$share/" + shareGroup + "/" + topic, 1))
+                .toArray(MqttSubscription[]::new);
+        try {
+            client.subscribe(subscriptions);
+            log.info("MQTT 告警訂閱者已{}連線並訂閱: {}", reconnect ? "重新" : "",
+                    Arrays.stream(subscriptions).map(MqttSubscription::getTopic).toList());
+        } catch (MqttException e) {
+            log.error("MQTT 訂閱失敗: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void messageArrived(String topic, MqttMessage message) throws Exception {
+        receivedCounter.increment();
+        Partition partition = partitions[Math.floorMod(topic.hashCode(), partitions.length)];
+        partition.queue.put(new Inbound(message.getId(), message.getQos(), message.getPayload()));
+    }
+
+    @Override
+    public void disconnected(MqttDisconnectResponse disconnectResponse) {
+        log.warn("MQTT 連線中斷: {}", disconnectResponse.getReasonString());
+    }
+
+    @Override
+    public void mqttErrorOccurred(MqttException exception) {
+        log.error("MQTT 錯誤: {}", exception.getMessage());
+    }
+
+    @Override
+    public void deliveryComplete(IMqttToken token) {
+    }
+
+    @Override
+    public void authPacketArrived(int reasonCode, MqttProperties properties) {
+    }
+
+    private void drainLoop(Partition partition) {
+        List<Inbound> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Inbound first = partition.queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                partition.queue.drainTo(batch, batchSize - 1);
+                if (persist(batch)) {
+                    acknowledge(batch);
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 寫入批次中去重後的有效告警，失敗時退避重試直到成功或停止；格式錯誤的訊息記錄後直接確認，避免反覆投遞
+     */
+    private boolean persist(List<Inbound> batch) throws InterruptedException {
+        LocalDateTime receivedAt = LocalDateTime.now();
+        List<AlertRecord> records = new ArrayList<>(batch.size());
+        for (Inbound inbound : batch) {
+            AlertIngestService.Validated validated = parse(inbound, receivedAt);
+            if (validated.error() != null) {
+                invalidCounter.increment();
+                log.warn("丟棄無效的 MQTT 告警 (messageId={}): {}", inbound.messageId(), validated.error());
+            } else if (deduplicator.admit(validated.record())) {
+                records.add(validated.record());
+            }
+        }
+
+        // 每次嘗試前檢查是否停止：停止後寫入成功也無法再確認，代理補投時會重複寫入
+        // 放棄時撤銷去重登記，代理補投的訊息才會再次寫入
+        long backoff = flushIntervalMillis;
+        try {
+            while (running) {
+                try {
+                    batchWriter.write(records);
+                    return true;
+                } catch (Exception e) {
+                    retryCounter.increment();
+                    log.error("寫入 MQTT 告警失敗，{} 毫秒後重試: {}", backoff, e.getMessage());
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            deduplicator.release(records);
+            throw e;
+        }
+        log.warn("停止中，放棄寫入 {} 筆 MQTT 告警，等待代理重新投遞", records.size());
+        deduplicator.release(records);
+        return false;
+    }
+
+    private AlertIngestService.Validated parse(Inbound inbound, LocalDateTime receivedAt) {
+        try {
+            AlertPayload payload = payloadReader.readValue(inbound.payload());
+            return alertIngestService.validate(payload, receivedAt);
+        } catch (IOException e) {
+            return AlertIngestService.Validated.invalid("JSON 格式錯誤: " + e.getMessage());
+        }
+    }
+
+    private void acknowledge(List<Inbound> batch) {
+        for (Inbound inbound : batch) {
+            if (inbound.qos() == 0) {
+                continue;
+            }
+            try {
+                client.messageArrivedComplete(inbound.messageId(), inbound.qos());
+            } catch (MqttException e) {
+                log.warn("MQTT 確認失敗 (messageId={}): {}", inbound.messageId(), e.getMessage());
+            }
+        }
+    }
+
+    private static String defaultClientId() {
+        try {
+            return "alert-backend-" + InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "alert-backend-" + ProcessHandle.current().pid();
+        }
+    }
+
+    private record Inbound(int messageId, int qos, byte[] payload) {
+    }
+
+    private static final class Partition {
+
+        private final int index;
+        private final BlockingQueue<Inbound> queue;
+        private Thread worker;
+
+        private Partition(int index, BlockingQueue<Inbound> queue) {
+            this.index = index;
+            this.queue = queue;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.alertsystem.alert;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * NDJSON 串流解析器
+ * 逐行讀取請求內容並反序列化，不把整個請求體載入記憶體；
+ * 單行格式錯誤只影響該行，超過行長或筆數上限的內容直接拒絕。
+ */
+@Component
+public class AlertNdjsonParser {
+
+    private final ObjectReader payloadReader;
+    private final int maxItems;
+    private final int maxLineLength;
+
+    public AlertNdjsonParser(ObjectMapper objectMapper,
+                             @Value("${alert.ingest.max-batch-items:10000}") int maxItems,
+                             @Value("${alert.ingest.max-line-length:65536}") int maxLineLength) {
+        this.payloadReader = objectMapper.readerFor(AlertPayload.class);
+        this.maxItems = maxItems;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * 解析 NDJSON，每個非空行回調一次，行號從 1 開始
+     */
+    public void parse(InputStream input, Handler handler) throws IOException {
+        LineReader lines = new LineReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        int lineNumber = 0;
+        int items = 0;
+        String line;
+        while ((line = lines.next(maxLineLength)) != null) {
+            lineNumber++;
+            if (lines.overflowed()) {
+                handler.onError(lineNumber, "單行長度超過 " + maxLineLength + " 字元");
+                items++;
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (++items > maxItems) {
+                handler.onError(lineNumber, "超過單批上限 " + maxItems + " 筆，其餘內容未處理");
+                return;
+            }
+            try {
+                handler.onItem(lineNumber, payloadReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                handler.onError(lineNumber, "JSON 格式錯誤: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * 解析回調
+     */
+    public interface Handler {
+
+        void onItem(int lineNumber, AlertPayload payload);
+
+        void onError(int lineNumber, String message);
+    }
+
+    /**
+     * 有長度上限的逐行讀取，超長行會被跳過並標記
+     */
+    private static final class LineReader {
+
+        private final Reader reader;
+        private final StringBuilder buffer = new StringBuilder();
+        private boolean overflowed;
+
+        private LineReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        private String next(int maxLength) throws IOException {
+            buffer.setLength(0);
+            overflowed = false;
+            int c;
+            boolean read = false;
+            while ((c = reader.read()) != -1) {
+                read = true;
+                if (c == '\n') {
+                    break;
+                }
+                if (overflowed) {
+                    continue;
+                }
+                if (buffer.length() >= maxLength) {
+                    overflowed = true;
+                    buffer.setLength(0);
+                    continue;
+                }
+                buffer.append((char) c);
+            }
+            if (!read) {
+                return null;
+            }
+            int length = buffer.length();
+            if (length > 0 && buffer.charAt(length - 1) == '\r') {
+                buffer.setLength(length - 1);
+            }
+            return buffer.toString();
+        }
+
+        private boolean overflowed() {
+            return overflowed;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.alertsystem.alert;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * alert_history 分區管理
+ * 定期補齊保留期限起至未來數個週期的日或月分區，並把結束時間早於保留期限的分區卸離 (DETACH) 或刪除 (DROP)。
+ * 卸離使用 DETACH PARTITION ... CONCURRENTLY，不阻塞寫入；因此父表沒有預設分區，
+ * 分區範圍外的告警由 {@link #accepts(LocalDateTime)} 在接收時拒絕。
+ * 多節點以 PostgreSQL advisory lock 保證同一時間只有一個節點執行。
+ */
+@Slf4j
+@Component
+public class AlertPartitionManager {
+
+    static final String PARENT_TABLE = "alert_history";
+
+    private static final long ADVISORY_LOCK_KEY = 0x616c657274L;
+
+    private static final String LIST_PARTITIONS = """
+            SELECT c.relname, i.inhdetachpending FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass(?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Interval interval;
+    private final int precreate;
+    private final Duration retention;
+    private final RetentionAction retentionAction;
+
+    public AlertPartitionManager(JdbcTemplate jdbcTemplate,
+                                 @Value("${alert.partition.interval:DAILY}") Interval interval,
+                                 @Value("${alert.partition.precreate:7}") int precreate,
+                                 @Value("${alert.partition.retention:90d}") Duration retention,
+                                 @Value("${alert.partition.retention-action:DETACH}") RetentionAction retentionAction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.interval = interval;
+        this.precreate = precreate;
+        this.retention = retention;
+        this.retentionAction = retentionAction;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+
+    /**
+     * 判斷告警時間是否落在維護中的分區範圍內，範圍外的告警沒有分區可寫入
+     */
+    public boolean accepts(LocalDateTime receivedAt) {
+        LocalDate today = LocalDate.now();
+        LocalDate day = receivedAt.toLocalDate();
+        return !day.isBefore(firstRetained(today)) && day.isBefore(lastPrecreated(today));
+    }
+
+    /**
+     * 補齊保留期限內及未來的分區並清理過期分區
+     */
+    @Scheduled(cron = "${alert.partition.cron:0 5 0 * * *}")
+    public void maintain() {
+        try {
+            jdbcTemplate.execute((Connection connection) -> {
+                if (!tryLock(connection)) {
+                    log.debug("其他節點正在維護告警分區，略過");
+                    return null;
+                }
+                try {
+                    maintain(connection, LocalDate.now());
+                } finally {
+                    unlock(connection);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.error("維護告警分區失敗: {}", e.getMessage());
+        }
+    }
+
+    private void maintain(Connection connection, LocalDate today) throws SQLException {
+        Map<String, Boolean> existing = listPartitions(connection);
+
+        // 從保留期限起補齊，重啟或排程中斷後缺少的過去分區也會建立
+        LocalDate end = lastPrecreated(today);
+        for (LocalDate start = firstRetained(today); start.isBefore(end); start = interval.next(start)) {
+            String name = interval.partitionName(start);
+            if (!existing.containsKey(name)) {
+                createPartition(connection, name, start, interval.next(start));
+            }
+        }
+
+        LocalDate cutoff = retentionCutoff(today);
+        for (Map.Entry<String, Boolean> partition : existing.entrySet()) {
+            LocalDate partitionStart = interval.parse(partition.getKey());
+            if (partitionStart != null && !interval.next(partitionStart).isAfter(cutoff)) {
+                expirePartition(connection, partition.getKey(), partition.getValue());
+            }
+        }
+    }
+
+    LocalDate retentionCutoff(LocalDate today) {
+        return today.minusDays(retention.toDays());
+    }
+
+    /**
+     * 保留的最早分區起始日，即包含保留期限的分區
+     */
+    LocalDate firstRetained(LocalDate today) {
+        return interval.floor(retentionCutoff(today));
+    }
+
+    /**
+     * 預先建立的最後一個分區的結束日 (不含)
+     */
+    LocalDate lastPrecreated(LocalDate today) {
+        LocalDate end = interval.floor(today);
+        for (int i = 0; i <= precreate; i++) {
+            end = interval.next(end);
+        }
+        return end;
+    }
+
+    /**
+     * 列出現有分區，值為是否有未完成的並行卸離
+     */
+    private Map<String, Boolean> listPartitions(Connection connection) throws SQLException {
+        Map<String, Boolean> partitions = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement(LIST_PARTITIONS)) {
+            ps.setString(1, PARENT_TABLE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    partitions.put(rs.getString(1), rs.getBoolean(2));
+                }
+            }
+        }
+        return partitions;
+    }
+
+    private void createPartition(Connection connection, String name, LocalDate from, LocalDate to) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    name, PARENT_TABLE, from, to));
+            log.info("建立告警分區 {} [{}, {})", name, from, to);
+        }
+    }
+
+    /**
+     * 並行卸離只取得 SHARE UPDATE EXCLUSIVE 鎖，不阻塞寫入；不能在交易中執行，連線需為自動提交。
+     * 上次卸離中斷時分區停留在待卸離狀態，改以 FINALIZE 完成。
+     */
+    private void expirePartition(Connection connection, String name, boolean detachPending) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + name
+                    + (detachPending ? " FINALIZE" : " CONCURRENTLY"));
+            if (retentionAction == RetentionAction.DROP) {
+                statement.execute("DROP TABLE " + name);
+                log.info("刪除過期告警分區 {}", name);
+            } else {
+                log.info("卸離過期告警分區 {}，資料表保留供歸檔", name);
+            }
+        }
+    }
+
+    private boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    private void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, ADVISORY_LOCK_KEY);
+            ps.execute();
+        }
+    }
+
+    /**
+     * 分區粒度，分區名稱為 alert_history_p 加上起始日期
+     */
+    public enum Interval {
+        DAILY("yyyyMMdd"),
+        MONTHLY("yyyyMM");
+
+        private final DateTimeFormatter format;
+
+        Interval(String pattern) {
+            this.format = DateTimeFormatter.ofPattern(pattern);
+        }
+
+        LocalDate floor(LocalDate date) {
+            return this == DAILY ? date : date.withDayOfMonth(1);
+        }
+
+        LocalDate next(LocalDate start) {
+            return this == DAILY ? start.plusDays(1) : start.plusMonths(1);
+        }
+
+        String partitionName(LocalDate start) {
+            return PARENT_TABLE + "_p" + format.format(start);
+        }
+
+        /**
+         * 從分區名稱解析起始日期，名稱不符合此粒度時返回 null
+         */
+        LocalDate parse(String partitionName) {
+            String prefix = PARENT_TABLE + "_p";
+            if (!partitionName.startsWith(prefix)) {
+                return null;
+            }
+            String suffix = partitionName.substring(prefix.length());
+            try {
+                return this == DAILY
+                        ? LocalDate.parse(suffix, format)
+                        : LocalDate.parse(suffix + "01", DateTimeFormatter.ofPattern("yyyyMMdd"));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 過期分區的處理方式
+     */
+    public enum RetentionAction {
+        /** 卸離後保留資料表，由維運歸檔 */
+        DETACH,
+        /** 卸離後刪除 */
+        DROP
+    }
+}
@@ -0,0 +1,54 @@
+package com.alertsystem.alert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 告警上報內容
+ */
+@Data
+public class AlertPayload {
+
+    private Long systemId;
+
+    @NotBlank(message = "告警類型不能為空")
+    @Size(max = 50, message = "告警類型長度不能超過50")
+    private String alertType;
+
+    @NotBlank(message = "嚴重程度不能為空")
+    @Pattern(regexp = "(?i)CRITICAL|HIGH|MEDIUM|LOW|INFO", message = "嚴重程度必須為 CRITICAL、HIGH、MEDIUM、LOW 或 INFO")
+    private String severity;
+
+    @NotBlank(message = "告警標題不能為空")
+    @Size(max = 255, message = "告警標題長度不能超過255")
+    private String title;
+
+    private String message;
+
+    /**
+     * 告警對象（主機、服務等），與系統、類型共同組成去重指紋，未提供時以標題代替
+     */
+    @Size(max = 255, message = "告警對象長度不能超過255")
+    private String target;
+
+    /**
+     * 來源自帶的去重指紋，提供時優先使用
+     */
+    @Size(max = 64, message = "告警指紋長度不能超過64")
+    private String fingerprint;
+
+    /**
+     * 來源系統的原始資料，以 JSONB 保存
+     */
+    private JsonNode sourceData;
+
+    /**
+     * 告警發生時間，未提供時使用接收時間
+     */
+    private LocalDateTime receivedAt;
+}
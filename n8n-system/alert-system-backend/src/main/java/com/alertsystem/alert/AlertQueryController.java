@@ -0,0 +1,42 @@
+package com.alertsystem.alert;
+
+import com.alertsystem.dto.common.ApiResponse;
+import com.alertsystem.dto.common.PageResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@Tag(name = "告警查詢", description = "按時間範圍查詢告警")
+@RestController
+@RequestMapping("/api/alerts")
+@RequiredArgsConstructor
+public class AlertQueryController {
+
+    private final AlertQueryService alertQueryService;
+
+    @Operation(summary = "查詢告警列表", description = "按接收時間範圍查詢，未指定時為最近 24 小時")
+    @GetMapping
+    public ApiResponse<PageResponse<AlertResponse>> getAlerts(
+            @Parameter(description = "起始時間 (含)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "結束時間 (不含)") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "系統ID") @RequestParam(required = false) Long systemId,
+            @Parameter(description = "嚴重程度") @RequestParam(required = false) String severity,
+            @Parameter(description = "狀態") @RequestParam(required = false) String status,
+            @Parameter(description = "頁碼") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "20") int size) {
+
+        Page<AlertResponse> result = alertQueryService.findAlerts(from, to, systemId, severity, status, page, size);
+        return ApiResponse.success(PageResponse.of(result));
+    }
+}
@@ -0,0 +1,57 @@
+package com.alertsystem.alert;
+
+import com.alertsystem.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * 告警查詢服務
+ * 查詢一律帶上接收時間範圍：未指定時預設最近 24 小時，跨度不得超過 alert.query.max-range，
+ * 讓分區表只掃描範圍內的分區。
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AlertQueryService {
+
+    private static final Duration DEFAULT_RANGE = Duration.ofHours(24);
+
+    private final AlertRepository alertRepository;
+
+    @Value("${alert.query.max-range:31d}")
+    private Duration maxRange;
+
+    /**
+     * 按時間範圍 [from, to) 分頁查詢告警
+     */
+    public Page<AlertResponse> findAlerts(LocalDateTime from,
+                                          LocalDateTime to,
+                                          Long systemId,
+                                          String severity,
+                                          String status,
+                                          int page,
+                                          int size) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(DEFAULT_RANGE);
+        if (!start.isBefore(end)) {
+            throw new BusinessException("查詢起始時間必須早於結束時間");
+        }
+        if (Duration.between(start, end).compareTo(maxRange) > 0) {
+            throw new BusinessException("查詢時間範圍不能超過 " + maxRange.toDays() + " 天");
+        }
+
+        return alertRepository.findInRange(start, end, systemId,
+                        severity != null ? severity.toUpperCase(Locale.ROOT) : null,
+                        status != null ? status.toUpperCase(Locale.ROOT) : null,
+                        PageRequest.of(page, size))
+                .map(AlertResponse::from);
+    }
+}
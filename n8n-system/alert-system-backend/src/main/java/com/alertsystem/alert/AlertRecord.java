@@ -0,0 +1,16 @@
+package com.alertsystem.alert;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已驗證、待寫入 alert_history 的告警
+ */
+record AlertRecord(Long systemId,
+                   String alertType,
+                   String severity,
+                   String title,
+                   String message,
+                   String sourceData,
+                   LocalDateTime receivedAt,
+                   String fingerprint) {
+}
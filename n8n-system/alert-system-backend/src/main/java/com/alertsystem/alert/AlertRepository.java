@@ -0,0 +1,42 @@
+package com.alertsystem.alert;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * 告警查詢
+ * 所有查詢都以 received_at 的半開區間 [from, to) 限定範圍，使 PostgreSQL 只掃描相關分區
+ */
+@Repository
+public interface AlertRepository extends JpaRepository<AlertHistory, Long> {
+
+    /**
+     * 按時間範圍分頁查詢告警
+     */
+    @Query(value = """
+        SELECT a FROM AlertHistory a
+        WHERE a.receivedAt >= :from AND a.receivedAt < :to
+        AND (:systemId IS NULL OR a.systemId = :systemId)
+        AND (:severity IS NULL OR a.severity = :severity)
+        AND (:status IS NULL OR a.status = :status)
+        ORDER BY a.receivedAt DESC, a.id DESC
+    """, countQuery = """
+        SELECT COUNT(a) FROM AlertHistory a
+        WHERE a.receivedAt >= :from AND a.receivedAt < :to
+        AND (:systemId IS NULL OR a.systemId = :systemId)
+        AND (:severity IS NULL OR a.severity = :severity)
+        AND (:status IS NULL OR a.status = :status)
+    """)
+    Page<AlertHistory> findInRange(@Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("systemId") Long systemId,
+                                   @Param("severity") String severity,
+                                   @Param("status") String status,
+                                   Pageable pageable);
+}
@@ -0,0 +1,48 @@
+package com.alertsystem.alert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlertResponse {
+
+    private Long id;
+    private Long systemId;
+    private String alertType;
+    private String severity;
+    private String title;
+    private String message;
+    private JsonNode sourceData;
+    private LocalDateTime receivedAt;
+    private LocalDateTime resolvedAt;
+    private String status;
+    private String fingerprint;
+    private Integer occurrenceCount;
+    private LocalDateTime lastReceivedAt;
+
+    public static AlertResponse from(AlertHistory alert) {
+        return AlertResponse.builder()
+                .id(alert.getId())
+                .systemId(alert.getSystemId())
+                .alertType(alert.getAlertType())
+                .severity(alert.getSeverity())
+                .title(alert.getTitle())
+                .message(alert.getMessage())
+                .sourceData(alert.getSourceData())
+                .receivedAt(alert.getReceivedAt())
+                .resolvedAt(alert.getResolvedAt())
+                .status(alert.getStatus())
+                .fingerprint(alert.getFingerprint())
+                .occurrenceCount(alert.getOccurrenceCount())
+                .lastReceivedAt(alert.getLastReceivedAt())
+                .build();
+    }
+}
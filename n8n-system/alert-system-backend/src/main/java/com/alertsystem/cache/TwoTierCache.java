@@ -0,0 +1,152 @@
+package com.alertsystem.cache;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+
+/**
+ * 兩級緩存
+ * L1 為本節點內有界的 Caffeine 緩存，L2 為各節點共享的 Redis 緩存。
+ * 讀取時先查 L1，未命中再查 L2 並回填 L1；寫入與清除同時作用於兩級，
+ * 清除操作會廣播給其他節點以移除其 L1 中的舊值。Redis 不可用時退化為純本地緩存。
+ */
+@Slf4j
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+    private final Cache remoteCache;
+    private final BiConsumer<String, Object> evictionBroadcaster;
+    private final Counter remoteHitCounter;
+    private final Counter remoteMissCounter;
+
+    public TwoTierCache(String name,
+                        com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache,
+                        Cache remoteCache,
+                        BiConsumer<String, Object> evictionBroadcaster,
+                        Counter remoteHitCounter,
+                        Counter remoteMissCounter) {
+        super(true);
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.evictionBroadcaster = evictionBroadcaster;
+        this.remoteHitCounter = remoteHitCounter;
+        this.remoteMissCounter = remoteMissCounter;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return localCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = localCache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        ValueWrapper wrapper = getRemote(key);
+        if (wrapper == null) {
+            remoteMissCounter.increment();
+            return null;
+        }
+        remoteHitCounter.increment();
+        Object storeValue = toStoreValue(wrapper.get());
+        localCache.put(key, storeValue);
+        return storeValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object storeValue = localCache.get(key, k -> {
+            ValueWrapper wrapper = getRemote(k);
+            if (wrapper != null) {
+                remoteHitCounter.increment();
+                return toStoreValue(wrapper.get());
+            }
+            remoteMissCounter.increment();
+            try {
+                Object loaded = toStoreValue(valueLoader.call());
+                putRemote(k, fromStoreValue(loaded));
+                return loaded;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+        });
+        return (T) fromStoreValue(storeValue);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        localCache.put(key, toStoreValue(value));
+        putRemote(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        localCache.invalidate(key);
+        try {
+            remoteCache.evict(key);
+        } catch (Exception e) {
+            log.warn("清除 Redis 緩存 {}[{}] 失敗: {}", name, key, e.getMessage());
+        }
+        evictionBroadcaster.accept(name, key);
+    }
+
+    @Override
+    public void clear() {
+        localCache.invalidateAll();
+        try {
+            remoteCache.clear();
+        } catch (Exception e) {
+            log.warn("清空 Redis 緩存 {} 失敗: {}", name, e.getMessage());
+        }
+        evictionBroadcaster.accept(name, null);
+    }
+
+    /**
+     * 只清除本地 L1，供其他節點的廣播調用
+     */
+    public void evictLocal(Object key) {
+        if (key == null) {
+            localCache.invalidateAll();
+        } else {
+            localCache.invalidate(key);
+        }
+    }
+
+    /**
+     * 只清空本地 L1，不觸及共享的 Redis 及其他節點
+     */
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    private ValueWrapper getRemote(Object key) {
+        try {
+            return remoteCache.get(key);
+        } catch (Exception e) {
+            log.warn("讀取 Redis 緩存 {}[{}] 失敗: {}", name, key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void putRemote(Object key, Object value) {
+        try {
+            remoteCache.put(key, value);
+        } catch (Exception e) {
+            log.warn("寫入 Redis 緩存 {}[{}] 失敗: {}", name, key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.alertsystem.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 兩級緩存管理器
+ * 按名稱建立 {@link TwoTierCache}，並透過 Redis pub/sub 在節點之間同步 L1 的清除操作。
+ * L1 命中、未命中及淘汰統計以 Micrometer 指標輸出（tier=l1），L2 命中率另行計數（tier=l2）。
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    public static final String EVICTION_CHANNEL = "cache:evict";
+
+    private final TwoTierCacheProperties properties;
+    private final RedisCacheWriter redisCacheWriter;
+    private final RedisSerializer<Object> valueSerializer;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(TwoTierCacheProperties properties,
+                               RedisConnectionFactory connectionFactory,
+                               RedisSerializer<Object> valueSerializer,
+                               StringRedisTemplate redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisCacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory);
+        this.valueSerializer = valueSerializer;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        listenerContainer.addMessageListener(this, new ChannelTopic(EVICTION_CHANNEL));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * 接收其他節點的清除廣播，只清除本地 L1
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.evictLocal(decodeKey(parts[2]));
+        }
+    }
+
+    private TwoTierCache createCache(String name) {
+        TwoTierCacheProperties.Spec spec = properties.specFor(name);
+
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache = Caffeine.newBuilder()
+                .maximumSize(spec.getMaxSize())
+                .expireAfterWrite(spec.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, name, "tier", "l1");
+
+        RedisCacheConfiguration redisConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(spec.getRedisTtl())
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
+        Cache remoteCache = RedisCacheManager.builder(redisCacheWriter)
+                .cacheDefaults(redisConfig)
+                .build()
+                .getCache(name);
+
+        log.info("建立兩級緩存 {}: L1 上限 {} 條 / {}，L2 存活 {}", name, spec.getMaxSize(), spec.getTtl(), spec.getRedisTtl());
+        return new TwoTierCache(name, localCache, remoteCache, this::broadcastEviction,
+                meterRegistry.counter("cache.l2.gets", "cache", name, "tier", "l2", "result", "hit"),
+                meterRegistry.counter("cache.l2.gets", "cache", name, "tier", "l2", "result", "miss"));
+    }
+
+    private void broadcastEviction(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(EVICTION_CHANNEL, nodeId + "|" + cacheName + "|" + encodeKey(key));
+        } catch (Exception e) {
+            log.warn("緩存清除廣播失敗 {}[{}]: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * 清除廣播的鍵編碼，保留常用鍵類型；其他類型鍵以清空整個 L1 處理
+     */
+    private static String encodeKey(Object key) {
+        if (key instanceof Long) {
+            return "L:" + key;
+        }
+        if (key instanceof Integer) {
+            return "I:" + key;
+        }
+        if (key instanceof String) {
+            return "S:" + key;
+        }
+        return "*";
+    }
+
+    private static Object decodeKey(String encoded) {
+        if (encoded.startsWith("L:")) {
+            return Long.valueOf(encoded.substring(2));
+        }
+        if (encoded.startsWith("I:")) {
+            return Integer.valueOf(encoded.substring(2));
+        }
+        if (encoded.startsWith("S:")) {
+            return encoded.substring(2);
+        }
+        return null;
+    }
+}
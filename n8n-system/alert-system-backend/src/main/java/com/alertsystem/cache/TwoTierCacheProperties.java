@@ -0,0 +1,49 @@
+package com.alertsystem.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 兩級緩存配置，可按緩存名稱分別設定本地容量、本地存活時間及 Redis 存活時間
+ */
+@Data
+@ConfigurationProperties(prefix = "cache")
+public class TwoTierCacheProperties {
+
+    /**
+     * 未單獨配置的緩存所使用的預設值
+     */
+    private Spec defaults = new Spec();
+
+    /**
+     * 按緩存名稱的配置
+     */
+    private Map<String, Spec> specs = new HashMap<>();
+
+    public Spec specFor(String cacheName) {
+        return specs.getOrDefault(cacheName, defaults);
+    }
+
+    @Data
+    public static class Spec {
+
+        /**
+         * 本地緩存最大條目數
+         */
+        private long maxSize = 1000;
+
+        /**
+         * 本地緩存寫入後存活時間
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * Redis 緩存存活時間
+         */
+        private Duration redisTtl = Duration.ofMinutes(30);
+    }
+}
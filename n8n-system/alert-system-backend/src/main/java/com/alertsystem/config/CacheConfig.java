@@ -0,0 +1,58 @@
+package com.alertsystem.config;
+
+import com.alertsystem.cache.TwoTierCacheManager;
+import com.alertsystem.cache.TwoTierCacheProperties;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(TwoTierCacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * L1 本地 Caffeine + L2 Redis 的兩級緩存管理器
+     */
+    @Bean
+    public CacheManager cacheManager(TwoTierCacheProperties properties,
+                                     RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     MeterRegistry meterRegistry) {
+        return new TwoTierCacheManager(properties, connectionFactory, cacheValueSerializer(),
+                redisTemplate, listenerContainer, meterRegistry);
+    }
+
+    /**
+     * Redis 緩存值序列化：JSON 並保留類型信息，以便還原 List&lt;ApiResourceResponse&gt; 等集合。
+     * 類型信息只允許本專案的 DTO 及 java.util 集合，避免 Redis 中的資料被利用於反序列化攻擊；
+     * 緩存值應為 DTO，不應緩存 JPA 實體。
+     */
+    private GenericJackson2JsonRedisSerializer cacheValueSerializer() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        BasicPolymorphicTypeValidator typeValidator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("com.alertsystem.dto.")
+                .allowIfSubType("java.util.")
+                .build();
+        objectMapper.activateDefaultTyping(typeValidator,
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return new GenericJackson2JsonRedisSerializer(objectMapper);
+    }
+}
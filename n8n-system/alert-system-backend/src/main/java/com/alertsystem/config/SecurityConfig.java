@@ -1,12 +1,17 @@
 package com.alertsystem.config;
 
+import com.alertsystem.security.AuthorizationPipelineFilter;
+import com.alertsystem.security.BoundedPasswordEncoder;
 import com.alertsystem.security.JwtAuthenticationEntryPoint;
-import com.alertsystem.security.JwtAuthenticationFilter;
-import com.alertsystem.security.DynamicPermissionFilter;
+import com.alertsystem.security.RequestAuthorization;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -17,6 +22,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -32,19 +38,25 @@ public class SecurityConfig {
 
     private final UserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
-    private final JwtAuthenticationFilter jwtAuthenticationFilter;
-    private final DynamicPermissionFilter dynamicPermissionFilter;
+    private final AuthorizationPipelineFilter authorizationPipelineFilter;
 
+    /**
+     * BCrypt 運算在專用的有界執行緒池中執行，佇列滿或等待逾時時快速失敗
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${password-hashing.pool-size:0}") int poolSize,
+                                           @Value("${password-hashing.queue-capacity:100}") int queueCapacity,
+                                           @Value("${password-hashing.timeout:5000}") long timeoutMillis) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, timeoutMillis, meterRegistry);
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -54,31 +66,39 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .exceptionHandling(exception -> exception.authenticationEntryPoint(jwtAuthenticationEntryPoint))
             .authorizeHttpRequests(auth -> auth
-                // 靜態資源和系統端點
+                // 靜態資源和系統端點（路徑不含 context path /api）
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
                 .requestMatchers("/favicon.ico").permitAll()
-                // 公開API端點 - 為了與動態權限系統配合，這裡只配置認證相關的基礎API
+                // 認證相關的基礎API
                 .requestMatchers("/auth/login", "/auth/register", "/auth/refresh").permitAll()
-                // 所有其他端點都需要認證，具體權限由動態權限過濾器控制
-                .anyRequest().authenticated()
+                // 其餘請求沿用認證授權管線已算出的判斷，不重新計算；管線未執行時一律拒絕
+                .anyRequest().access(pipelineDecision())
             );
 
-        http.authenticationProvider(authenticationProvider());
-        // 先添加JWT過濾器在UsernamePasswordAuthenticationFilter之前
-        http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
-        // 然後添加動態權限過濾器在JWT過濾器之後，但在授權過濾器之前
-        http.addFilterAfter(dynamicPermissionFilter, JwtAuthenticationFilter.class);
+        http.authenticationProvider(authenticationProvider);
+        // 認證授權管線過濾器在UsernamePasswordAuthenticationFilter之前
+        http.addFilterBefore(authorizationPipelineFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * 讀取認證授權管線存入請求屬性的判斷結果
+     */
+    private AuthorizationManager<RequestAuthorizationContext> pipelineDecision() {
+        return (authentication, context) -> {
+            RequestAuthorization authorization = RequestAuthorization.from(context.getRequest());
+            return new AuthorizationDecision(authorization != null && authorization.isGranted());
+        };
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
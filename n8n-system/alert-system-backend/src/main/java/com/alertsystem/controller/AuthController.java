@@ -40,10 +40,11 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    @Operation(summary = "用戶登出", description = "登出並撤銷訪問令牌")
-    public ApiResponse<Void> logout(HttpServletRequest request) {
+    @Operation(summary = "用戶登出", description = "登出並撤銷訪問令牌及其refresh token")
+    public ApiResponse<Void> logout(HttpServletRequest request,
+                                    @RequestBody(required = false) RefreshTokenRequest body) {
         String token = request.getHeader("Authorization");
-        authService.logout(token);
+        authService.logout(token, body != null ? body.getRefreshToken() : null);
         return ApiResponse.success("登出成功", null);
     }
 
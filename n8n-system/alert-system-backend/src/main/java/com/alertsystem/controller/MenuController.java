@@ -1,6 +1,7 @@
 package com.alertsystem.controller;
 
 import com.alertsystem.dto.ApiResponse;
+import com.alertsystem.dto.common.CursorPageResponse;
 import com.alertsystem.dto.menu.*;
 import com.alertsystem.security.UserPrincipal;
 import com.alertsystem.service.MenuService;
@@ -13,11 +14,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -32,7 +35,7 @@ public class MenuController {
 
     @Operation(summary = "創建選單", description = "創建新的選單項目")
     @PostMapping
-    @PreAuthorize("hasAuthority('system:menu:add')")
+    @PreAuthorize("@authz.hasAuthority('system:menu:add')")
     public ResponseEntity<ApiResponse<MenuDTO>> createMenu(@Valid @RequestBody MenuCreateRequest request) {
         log.info("Creating menu: {}", request.getName());
         MenuDTO menu = menuService.createMenu(request);
@@ -41,7 +44,7 @@ public class MenuController {
 
     @Operation(summary = "更新選單", description = "更新選單信息")
     @PutMapping("/{id}")
-    @PreAuthorize("hasAuthority('system:menu:edit')")
+    @PreAuthorize("@authz.hasAuthority('system:menu:edit')")
     public ResponseEntity<ApiResponse<MenuDTO>> updateMenu(
             @Parameter(description = "選單ID") @PathVariable Long id,
             @Valid @RequestBody MenuUpdateRequest request) {
@@ -53,7 +56,7 @@ public class MenuController {
 
     @Operation(summary = "刪除選單", description = "刪除指定選單")
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasAuthority('system:menu:delete')")
+    @PreAuthorize("@authz.hasAuthority('system:menu:delete')")
     public ResponseEntity<ApiResponse<String>> deleteMenu(
             @Parameter(description = "選單ID") @PathVariable Long id) {
         log.info("Deleting menu: {}", id);
@@ -63,7 +66,7 @@ public class MenuController {
 
     @Operation(summary = "查詢選單詳情", description = "根據ID查詢選單詳細信息")
     @GetMapping("/{id}")
-    @PreAuthorize("hasAuthority('system:menu:view')")
+    @PreAuthorize("@authz.hasAuthority('system:menu:view')")
     public ResponseEntity<ApiResponse<MenuDTO>> getMenuById(
             @Parameter(description = "選單ID") @PathVariable Long id) {
         MenuDTO menu = menuService.getMenuById(id);
@@ -72,7 +75,7 @@ public class MenuController {
 
     @Operation(summary = "查詢選單樹", description = "查詢所有選單的樹狀結構")
     @GetMapping("/tree")
-    @PreAuthorize("hasAuthority('system:menu:view')")
+    @PreAuthorize("@authz.hasAuthority('system:menu:view')")
     public ResponseEntity<ApiResponse<List<MenuDTO>>> getMenuTree() {
         List<MenuDTO> menuTree = menuService.getAllMenuTree();
         return ResponseEntity.ok(ApiResponse.success(menuTree));
@@ -80,24 +83,51 @@ public class MenuController {
 
     @Operation(summary = "分頁查詢選單", description = "分頁查詢選單列表")
     @GetMapping
-    @PreAuthorize("hasAuthority('system:menu:view')")
+    @PreAuthorize("@authz.hasAuthority('system:menu:view')")
     public ResponseEntity<ApiResponse<Page<MenuDTO>>> getMenuList(
             @PageableDefault(size = 20) Pageable pageable) {
         Page<MenuDTO> menuPage = menuService.getMenuList(pageable);
         return ResponseEntity.ok(ApiResponse.success(menuPage));
     }
 
-    @Operation(summary = "查詢用戶選單", description = "查詢當前用戶可訪問的選單樹")
+    @Operation(summary = "游標分頁查詢選單", description = "按排序與ID定位下一頁，可選擇返回估算或精確總數")
+    @GetMapping("/scroll")
+    @PreAuthorize("@authz.hasAuthority('system:menu:view')")
+    public ResponseEntity<ApiResponse<CursorPageResponse<MenuDTO>>> scrollMenuList(
+            @Parameter(description = "上一頁返回的游標，為空表示第一頁") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "總數計算方式：NONE、ESTIMATED、EXACT")
+            @RequestParam(defaultValue = "NONE") CursorPageResponse.CountMode count) {
+        CursorPageResponse<MenuDTO> menuPage = menuService.scrollMenuList(cursor, size, count);
+        return ResponseEntity.ok(ApiResponse.success(menuPage));
+    }
+
+    @Operation(summary = "搜尋選單", description = "按名稱子字串搜尋選單，結果按相似度排序")
+    @GetMapping("/search")
+    @PreAuthorize("@authz.hasAuthority('system:menu:view')")
+    public ResponseEntity<ApiResponse<List<MenuDTO>>> searchMenus(
+            @Parameter(description = "選單名稱關鍵字") @RequestParam String name) {
+        List<MenuDTO> menus = menuService.searchMenus(name);
+        return ResponseEntity.ok(ApiResponse.success(menus));
+    }
+
+    @Operation(summary = "查詢用戶選單", description = "查詢當前用戶可訪問的選單樹，支援 If-None-Match 條件請求")
     @GetMapping("/user")
-    public ResponseEntity<ApiResponse<List<UserMenuTree>>> getUserMenus() {
+    public ResponseEntity<ApiResponse<List<UserMenuTree>>> getUserMenus(WebRequest webRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
         if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
             UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            Long userId = userPrincipal.getId();
             
-            List<UserMenuTree> userMenus = menuService.getUserMenuTree(userId);
-            return ResponseEntity.ok(ApiResponse.success(userMenus));
+            UserMenuTreeSnapshot snapshot = menuService.getUserMenuTreeSnapshot(userPrincipal.getRoleIds());
+            if (webRequest.checkNotModified(snapshot.getEtag())) {
+                // 已回應 304 Not Modified
+                return null;
+            }
+            return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(snapshot.getEtag())
+                .body(ApiResponse.success(snapshot.getMenus()));
         }
         
         return ResponseEntity.ok(ApiResponse.success(List.of()));
@@ -121,7 +151,7 @@ public class MenuController {
 
     @Operation(summary = "查詢角色選單", description = "查詢指定角色的選單權限")
     @GetMapping("/role/{roleId}")
-    @PreAuthorize("hasAuthority('system:role:view')")
+    @PreAuthorize("@authz.hasAuthority('system:role:view')")
     public ResponseEntity<ApiResponse<List<MenuDTO>>> getRoleMenus(
             @Parameter(description = "角色ID") @PathVariable Long roleId) {
         List<MenuDTO> menus = menuService.getMenusByRoleId(roleId);
@@ -130,7 +160,7 @@ public class MenuController {
 
     @Operation(summary = "為角色分配選單", description = "為指定角色分配選單權限")
     @PostMapping("/role/{roleId}/assign")
-    @PreAuthorize("hasAuthority('system:role:assign')")
+    @PreAuthorize("@authz.hasAuthority('system:role:assign')")
     public ResponseEntity<ApiResponse<String>> assignMenusToRole(
             @Parameter(description = "角色ID") @PathVariable Long roleId,
             @RequestBody List<Long> menuIds) {
@@ -141,16 +171,25 @@ public class MenuController {
 
     @Operation(summary = "查詢子選單", description = "查詢指定父選單的子選單")
     @GetMapping("/children/{parentId}")
-    @PreAuthorize("hasAuthority('system:menu:view')")
+    @PreAuthorize("@authz.hasAuthority('system:menu:view')")
     public ResponseEntity<ApiResponse<List<MenuDTO>>> getChildMenus(
             @Parameter(description = "父選單ID") @PathVariable Long parentId) {
         List<MenuDTO> children = menuService.getChildMenus(parentId);
         return ResponseEntity.ok(ApiResponse.success(children));
     }
 
+    @Operation(summary = "查詢選單子樹", description = "查詢指定選單及其所有後代選單")
+    @GetMapping("/{id}/subtree")
+    @PreAuthorize("@authz.hasAuthority('system:menu:view')")
+    public ResponseEntity<ApiResponse<List<MenuDTO>>> getMenuSubtree(
+            @Parameter(description = "選單ID") @PathVariable Long id) {
+        List<MenuDTO> subtree = menuService.getMenuSubtree(id);
+        return ResponseEntity.ok(ApiResponse.success(subtree));
+    }
+
     @Operation(summary = "按類型查詢選單", description = "根據選單類型查詢選單列表")
     @GetMapping("/type/{type}")
-    @PreAuthorize("hasAuthority('system:menu:view')")
+    @PreAuthorize("@authz.hasAuthority('system:menu:view')")
     public ResponseEntity<ApiResponse<List<MenuDTO>>> getMenusByType(
             @Parameter(description = "選單類型 0:目錄 1:選單 2:按鈕") @PathVariable Integer type) {
         List<MenuDTO> menus = menuService.getMenusByType(type);
@@ -1,10 +1,12 @@
 package com.alertsystem.controller.system;
 
 import com.alertsystem.dto.common.ApiResponse;
+import com.alertsystem.dto.common.CursorPageResponse;
 import com.alertsystem.dto.common.PageResponse;
 import com.alertsystem.dto.request.ApiResourceCreateRequest;
 import com.alertsystem.dto.request.ApiResourceUpdateRequest;
 import com.alertsystem.dto.request.RoleApiPermissionRequest;
+import com.alertsystem.dto.response.ApiModuleSummary;
 import com.alertsystem.dto.response.ApiResourceResponse;
 import com.alertsystem.security.UserPrincipal;
 import com.alertsystem.service.ApiResourceService;
@@ -30,7 +32,7 @@ public class ApiResourceController {
     
     @Operation(summary = "分頁查詢API資源")
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
     public ApiResponse<PageResponse<ApiResourceResponse>> getApiResources(
             @Parameter(description = "模組名稱") @RequestParam(required = false) String moduleName,
             @Parameter(description = "是否啟用") @RequestParam(required = false) Boolean isEnabled,
@@ -44,9 +46,27 @@ public class ApiResourceController {
         return ApiResponse.success(PageResponse.of(result));
     }
     
+    @Operation(summary = "游標分頁查詢API資源", description = "按排序與ID定位下一頁，深分頁不需掃描前面的資料")
+    @GetMapping("/scroll")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
+    public ApiResponse<CursorPageResponse<ApiResourceResponse>> scrollApiResources(
+            @Parameter(description = "模組名稱") @RequestParam(required = false) String moduleName,
+            @Parameter(description = "是否啟用") @RequestParam(required = false) Boolean isEnabled,
+            @Parameter(description = "關鍵字搜索") @RequestParam(required = false) String keyword,
+            @Parameter(description = "上一頁返回的游標，為空表示第一頁") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "總數計算方式：NONE、ESTIMATED、EXACT")
+            @RequestParam(defaultValue = "NONE") CursorPageResponse.CountMode count) {
+        
+        CursorPageResponse<ApiResourceResponse> result = apiResourceService.scrollApiResources(
+                moduleName, isEnabled, keyword, cursor, size, count);
+        
+        return ApiResponse.success(result);
+    }
+    
     @Operation(summary = "根據ID獲取API資源")
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
     public ApiResponse<ApiResourceResponse> getApiResourceById(
             @Parameter(description = "API資源ID") @PathVariable Long id) {
         
@@ -56,7 +76,7 @@ public class ApiResourceController {
     
     @Operation(summary = "創建API資源")
     @PostMapping
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
     public ApiResponse<ApiResourceResponse> createApiResource(
             @Valid @RequestBody ApiResourceCreateRequest request,
             @AuthenticationPrincipal UserPrincipal currentUser) {
@@ -67,7 +87,7 @@ public class ApiResourceController {
     
     @Operation(summary = "更新API資源")
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
     public ApiResponse<ApiResourceResponse> updateApiResource(
             @Parameter(description = "API資源ID") @PathVariable Long id,
             @Valid @RequestBody ApiResourceUpdateRequest request,
@@ -79,7 +99,7 @@ public class ApiResourceController {
     
     @Operation(summary = "刪除API資源")
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
     public ApiResponse<Void> deleteApiResource(
             @Parameter(description = "API資源ID") @PathVariable Long id) {
         
@@ -89,15 +109,23 @@ public class ApiResourceController {
     
     @Operation(summary = "獲取所有模組名稱")
     @GetMapping("/modules")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
     public ApiResponse<List<String>> getModuleNames() {
         List<String> result = apiResourceService.getModuleNames();
         return ApiResponse.success(result);
     }
     
+    @Operation(summary = "獲取模組目錄", description = "返回每個模組的API總數、啟用數與公開數")
+    @GetMapping("/modules/catalog")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
+    public ApiResponse<List<ApiModuleSummary>> getModuleCatalog() {
+        List<ApiModuleSummary> result = apiResourceService.getModuleCatalog();
+        return ApiResponse.success(result);
+    }
+    
     @Operation(summary = "獲取角色的API權限")
     @GetMapping("/roles/{roleId}/permissions")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
     public ApiResponse<List<ApiResourceResponse>> getRoleApiPermissions(
             @Parameter(description = "角色ID") @PathVariable Long roleId) {
         
@@ -107,7 +135,7 @@ public class ApiResourceController {
     
     @Operation(summary = "為角色分配API權限")
     @PutMapping("/roles/{roleId}/permissions")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@authz.hasRole('ADMIN')")
     public ApiResponse<Void> assignApiPermissionsToRole(
             @Parameter(description = "角色ID") @PathVariable Long roleId,
             @Valid @RequestBody RoleApiPermissionRequest request,
@@ -0,0 +1,65 @@
+package com.alertsystem.dto.common;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游標分頁響應
+ * nextCursor 為 null 表示沒有下一頁；totalElements 只在請求時返回，totalEstimated 表示其為估算值
+ */
+@Data
+public class CursorPageResponse<T> {
+
+    /**
+     * 單頁最大筆數
+     */
+    public static final int MAX_SIZE = 200;
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+    private Long totalElements;
+    private boolean totalEstimated;
+    private boolean empty;
+
+    public static <T> CursorPageResponse<T> of(List<T> content, int size, String nextCursor, TotalCount total) {
+        CursorPageResponse<T> response = new CursorPageResponse<>();
+        response.setContent(content);
+        response.setSize(size);
+        response.setNextCursor(nextCursor);
+        response.setHasNext(nextCursor != null);
+        response.setEmpty(content.isEmpty());
+        if (total != null) {
+            response.setTotalElements(total.value());
+            response.setTotalEstimated(total.estimated());
+        }
+        return response;
+    }
+
+    /**
+     * 將請求的每頁大小限制在 1 ~ MAX_SIZE
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    /**
+     * 總筆數
+     */
+    public record TotalCount(long value, boolean estimated) {
+    }
+
+    /**
+     * 總筆數計算方式
+     */
+    public enum CountMode {
+        /** 不計算 */
+        NONE,
+        /** 以資料表統計信息估算，有篩選條件時改為精確計數 */
+        ESTIMATED,
+        /** 精確計數 */
+        EXACT
+    }
+}
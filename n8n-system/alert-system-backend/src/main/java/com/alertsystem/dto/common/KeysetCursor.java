@@ -0,0 +1,35 @@
+package com.alertsystem.dto.common;
+
+import com.alertsystem.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 鍵集分頁游標，記錄上一頁最後一筆的 (sort_order, id)
+ * 對外以 Base64URL 編碼的不透明字串傳遞
+ */
+public record KeysetCursor(int sortOrder, long id) {
+
+    public String encode() {
+        String raw = sortOrder + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游標，空字串表示第一頁並返回 null
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new KeysetCursor(Integer.parseInt(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BusinessException("無效的分頁游標");
+        }
+    }
+}
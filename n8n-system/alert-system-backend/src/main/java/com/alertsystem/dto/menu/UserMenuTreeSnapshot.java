@@ -0,0 +1,18 @@
+package com.alertsystem.dto.menu;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 用戶選單樹快照
+ * 按角色組合合併後共享，內容不可修改；etag 為選單樹內容的雜湊
+ */
+@Getter
+@AllArgsConstructor
+public class UserMenuTreeSnapshot {
+
+    private final List<UserMenuTree> menus;
+    private final String etag;
+}
@@ -0,0 +1,18 @@
+package com.alertsystem.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiModuleSummary {
+    
+    private String moduleName;
+    private Long apiCount;
+    private Long enabledCount;
+    private Long publicCount;
+}
@@ -1,12 +1,17 @@
 package com.alertsystem.dto.response;
 
+import com.alertsystem.entity.ApiResource;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class ApiResourceResponse {
     
     private Long id;
@@ -20,4 +25,20 @@ public class ApiResourceResponse {
     private Integer sortOrder;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    public static ApiResourceResponse from(ApiResource apiResource) {
+        return ApiResourceResponse.builder()
+                .id(apiResource.getId())
+                .apiName(apiResource.getApiName())
+                .apiPath(apiResource.getApiPath())
+                .httpMethod(apiResource.getHttpMethod())
+                .apiDescription(apiResource.getApiDescription())
+                .moduleName(apiResource.getModuleName())
+                .isEnabled(apiResource.getIsEnabled())
+                .isPublic(apiResource.getIsPublic())
+                .sortOrder(apiResource.getSortOrder())
+                .createdAt(apiResource.getCreatedAt())
+                .updatedAt(apiResource.getUpdatedAt())
+                .build();
+    }
 }
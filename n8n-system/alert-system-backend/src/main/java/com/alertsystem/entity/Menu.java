@@ -3,12 +3,16 @@ package com.alertsystem.entity;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 import java.util.Set;
 
 @Entity
 @Table(name = "menus")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -83,6 +87,7 @@ public class Menu extends BaseEntity {
     // 多對多：選單與角色的關聯
     @JsonBackReference
     @ManyToMany(mappedBy = "menus", fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Role> roles;
 
     /**
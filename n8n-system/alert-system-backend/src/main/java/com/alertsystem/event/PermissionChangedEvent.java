@@ -0,0 +1,51 @@
+package com.alertsystem.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 權限變更事件
+ * API資源、角色API權限、角色選單或選單寫入後發布，於事務提交後遞增權限世代並廣播至所有節點
+ */
+@Getter
+public class PermissionChangedEvent extends ApplicationEvent {
+
+    private final ChangeType changeType;
+
+    /**
+     * 受影響的角色ID，為 null 表示影響所有角色
+     */
+    private final Long roleId;
+
+    public PermissionChangedEvent(Object source, ChangeType changeType, Long roleId) {
+        super(source);
+        this.changeType = changeType;
+        this.roleId = roleId;
+    }
+
+    public static PermissionChangedEvent apiResourceChanged(Object source) {
+        return new PermissionChangedEvent(source, ChangeType.API_RESOURCE, null);
+    }
+
+    public static PermissionChangedEvent roleApiChanged(Object source, Long roleId) {
+        return new PermissionChangedEvent(source, ChangeType.ROLE_API, roleId);
+    }
+
+    public static PermissionChangedEvent roleMenuChanged(Object source, Long roleId) {
+        return new PermissionChangedEvent(source, ChangeType.ROLE_MENU, roleId);
+    }
+
+    public static PermissionChangedEvent menuChanged(Object source) {
+        return new PermissionChangedEvent(source, ChangeType.MENU, null);
+    }
+
+    /**
+     * 變更類型
+     */
+    public enum ChangeType {
+        API_RESOURCE,
+        ROLE_API,
+        ROLE_MENU,
+        MENU
+    }
+}
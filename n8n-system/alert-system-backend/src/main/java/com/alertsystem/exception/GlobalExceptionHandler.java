@@ -1,6 +1,7 @@
 package com.alertsystem.exception;
 
 import com.alertsystem.dto.ApiResponse;
+import com.alertsystem.security.PasswordHashingRejectedException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +26,13 @@ public class GlobalExceptionHandler {
             .body(ApiResponse.error(400, ex.getMessage()));
     }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<ApiResponse<Object>> handlePasswordHashingRejectedException(PasswordHashingRejectedException ex) {
+        log.warn("Password hashing rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .body(ApiResponse.error(503, "系統繁忙，請稍後再試"));
+    }
+
     @ExceptionHandler(BadCredentialsException.class)
     public ResponseEntity<ApiResponse<Object>> handleBadCredentialsException(BadCredentialsException ex) {
         log.error("Bad credentials: ", ex);
@@ -1,13 +1,19 @@
 package com.alertsystem.repository;
 
+import com.alertsystem.dto.response.ApiModuleSummary;
 import com.alertsystem.entity.ApiResource;
+import com.alertsystem.service.EntityCacheService;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,16 +28,28 @@ public interface ApiResourceRepository extends JpaRepository<ApiResource, Long>
     /**
      * 查找啟用的API資源
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheService.API_RESOURCE_QUERY_REGION)
+    })
     List<ApiResource> findByIsEnabledTrueOrderBySortOrder();
     
     /**
      * 根據模組名稱查找API資源
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheService.API_RESOURCE_QUERY_REGION)
+    })
     List<ApiResource> findByModuleNameAndIsEnabledTrueOrderBySortOrder(String moduleName);
     
     /**
      * 查找公開的API資源
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheService.API_RESOURCE_QUERY_REGION)
+    })
     List<ApiResource> findByIsPublicTrueAndIsEnabledTrue();
     
     /**
@@ -50,6 +68,10 @@ public interface ApiResourceRepository extends JpaRepository<ApiResource, Long>
     /**
      * 根據角色ID查找API資源
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheService.API_RESOURCE_QUERY_REGION)
+    })
     @Query("""
         SELECT ar FROM ApiResource ar
         JOIN RoleApiPermission rap ON ar.id = rap.apiResourceId
@@ -59,6 +81,38 @@ public interface ApiResourceRepository extends JpaRepository<ApiResource, Long>
     """)
     List<ApiResource> findApiResourcesByRoleId(@Param("roleId") Long roleId);
     
+    /**
+     * 查詢所有非空的模組名稱
+     */
+    @Query("""
+        SELECT DISTINCT ar.moduleName FROM ApiResource ar
+        WHERE ar.moduleName IS NOT NULL AND TRIM(ar.moduleName) <> ''
+        ORDER BY ar.moduleName
+    """)
+    List<String> findDistinctModuleNames();
+    
+    /**
+     * 按模組統計API數量、啟用數量與公開數量
+     */
+    @Query("""
+        SELECT new com.alertsystem.dto.response.ApiModuleSummary(
+            ar.moduleName,
+            COUNT(ar),
+            SUM(CASE WHEN ar.isEnabled = true THEN 1L ELSE 0L END),
+            SUM(CASE WHEN ar.isPublic = true THEN 1L ELSE 0L END))
+        FROM ApiResource ar
+        WHERE ar.moduleName IS NOT NULL AND TRIM(ar.moduleName) <> ''
+        GROUP BY ar.moduleName
+        ORDER BY ar.moduleName
+    """)
+    List<ApiModuleSummary> summarizeModules();
+    
+    /**
+     * 批量查詢存在的API資源ID
+     */
+    @Query("SELECT ar.id FROM ApiResource ar WHERE ar.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
     /**
      * 檢查用戶是否有權限訪問指定API
      */
@@ -83,7 +137,7 @@ public interface ApiResourceRepository extends JpaRepository<ApiResource, Long>
         SELECT ar FROM ApiResource ar
         WHERE (:moduleName IS NULL OR ar.moduleName = :moduleName)
         AND (:isEnabled IS NULL OR ar.isEnabled = :isEnabled)
-        AND (:keyword IS NULL OR ar.apiName LIKE %:keyword% OR ar.apiPath LIKE %:keyword%)
+        AND (:keyword IS NULL OR ar.apiName ILIKE CONCAT('%', :keyword, '%') OR ar.apiPath ILIKE CONCAT('%', :keyword, '%'))
         ORDER BY ar.sortOrder, ar.id
     """)
     Page<ApiResource> findApiResourcesWithConditions(
@@ -91,4 +145,54 @@ public interface ApiResourceRepository extends JpaRepository<ApiResource, Long>
             @Param("isEnabled") Boolean isEnabled,
             @Param("keyword") String keyword,
             Pageable pageable);
+    
+    /**
+     * 鍵集分頁查詢API資源第一頁，不執行總數查詢
+     */
+    @Query("""
+        SELECT ar FROM ApiResource ar
+        WHERE (:moduleName IS NULL OR ar.moduleName = :moduleName)
+        AND (:isEnabled IS NULL OR ar.isEnabled = :isEnabled)
+        AND (:keyword IS NULL OR ar.apiName ILIKE CONCAT('%', :keyword, '%') OR ar.apiPath ILIKE CONCAT('%', :keyword, '%'))
+        ORDER BY ar.sortOrder, ar.id
+    """)
+    List<ApiResource> findApiResourcesFirstPage(
+            @Param("moduleName") String moduleName,
+            @Param("isEnabled") Boolean isEnabled,
+            @Param("keyword") String keyword,
+            Pageable pageable);
+    
+    /**
+     * 鍵集分頁查詢API資源，從 (afterSortOrder, afterId) 之後開始；
+     * 以行值比較表達游標條件，可直接使用 (sort_order, id) 索引定位起點
+     */
+    @Query("""
+        SELECT ar FROM ApiResource ar
+        WHERE (:moduleName IS NULL OR ar.moduleName = :moduleName)
+        AND (:isEnabled IS NULL OR ar.isEnabled = :isEnabled)
+        AND (:keyword IS NULL OR ar.apiName ILIKE CONCAT('%', :keyword, '%') OR ar.apiPath ILIKE CONCAT('%', :keyword, '%'))
+        AND (ar.sortOrder, ar.id) > (cast(:afterSortOrder as Integer), cast(:afterId as Long))
+        ORDER BY ar.sortOrder, ar.id
+    """)
+    List<ApiResource> findApiResourcesAfter(
+            @Param("moduleName") String moduleName,
+            @Param("isEnabled") Boolean isEnabled,
+            @Param("keyword") String keyword,
+            @Param("afterSortOrder") Integer afterSortOrder,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+    
+    /**
+     * 按條件統計API資源數量
+     */
+    @Query("""
+        SELECT COUNT(ar) FROM ApiResource ar
+        WHERE (:moduleName IS NULL OR ar.moduleName = :moduleName)
+        AND (:isEnabled IS NULL OR ar.isEnabled = :isEnabled)
+        AND (:keyword IS NULL OR ar.apiName ILIKE CONCAT('%', :keyword, '%') OR ar.apiPath ILIKE CONCAT('%', :keyword, '%'))
+    """)
+    long countApiResourcesWithConditions(
+            @Param("moduleName") String moduleName,
+            @Param("isEnabled") Boolean isEnabled,
+            @Param("keyword") String keyword);
 }
@@ -1,11 +1,20 @@
 package com.alertsystem.repository;
 
 import com.alertsystem.entity.Menu;
+import com.alertsystem.service.EntityCacheService;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +23,10 @@ public interface MenuRepository extends JpaRepository<Menu, Long> {
     /**
      * 根據父級ID查詢子選單
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheService.MENU_QUERY_REGION)
+    })
     List<Menu> findByParentIdOrderBySortOrderAsc(Long parentId);
 
     /**
@@ -56,6 +69,10 @@ public interface MenuRepository extends JpaRepository<Menu, Long> {
     /**
      * 根據角色ID查詢角色可訪問的選單
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheService.MENU_QUERY_REGION)
+    })
     @Query("SELECT m FROM Menu m " +
            "JOIN m.roles r " +
            "WHERE r.id = :roleId " +
@@ -75,6 +92,21 @@ public interface MenuRepository extends JpaRepository<Menu, Long> {
            "ORDER BY m.parentId, m.sortOrder ASC")
     List<Menu> findMenuTreeByUserId(@Param("userId") Long userId);
 
+    /**
+     * 根據角色ID查詢角色可訪問的選單樹節點
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheService.MENU_QUERY_REGION)
+    })
+    @Query("SELECT m FROM Menu m " +
+           "JOIN m.roles r " +
+           "WHERE r.id = :roleId " +
+           "AND m.visible = 1 " +
+           "AND m.type IN (0, 1) " + // 只查詢目錄和選單，不包括按鈕
+           "ORDER BY m.parentId, m.sortOrder ASC")
+    List<Menu> findMenuTreeByRoleId(@Param("roleId") Long roleId);
+
     /**
      * 根據用戶ID查詢用戶可訪問的權限列表
      */
@@ -91,6 +123,68 @@ public interface MenuRepository extends JpaRepository<Menu, Long> {
      */
     boolean existsByParentId(Long parentId);
 
+    /**
+     * 批量查詢存在子選單的父級ID
+     */
+    @Query("SELECT DISTINCT m.parentId FROM Menu m WHERE m.parentId IN :parentIds")
+    List<Long> findParentIdsWithChildren(@Param("parentIds") Collection<Long> parentIds);
+
+    /**
+     * 鍵集分頁查詢選單第一頁，不執行總數查詢
+     */
+    @Query("SELECT m FROM Menu m ORDER BY m.sortOrder ASC, m.id ASC")
+    List<Menu> findMenusFirstPage(Pageable pageable);
+
+    /**
+     * 鍵集分頁查詢選單，從 (afterSortOrder, afterId) 之後開始；
+     * 以行值比較表達游標條件，可直接使用 (sort_order, id) 索引定位起點
+     */
+    @Query("SELECT m FROM Menu m " +
+           "WHERE (m.sortOrder, m.id) > (cast(:afterSortOrder as Integer), cast(:afterId as Long)) " +
+           "ORDER BY m.sortOrder ASC, m.id ASC")
+    List<Menu> findMenusAfter(@Param("afterSortOrder") Integer afterSortOrder,
+                              @Param("afterId") Long afterId,
+                              Pageable pageable);
+
+    /**
+     * 根據物化路徑查詢子樹（含自身）
+     * 後代以顯式範圍 [treePath + '/', treePath + '0') 表達（'0' 為 '/' 的下一個字元），
+     * 通用執行計劃也能走 tree_path 的 C 排序規則索引
+     */
+    @Query("SELECT m FROM Menu m " +
+           "WHERE m.treePath = :treePath " +
+           "OR (m.treePath >= CONCAT(:treePath, '/') AND m.treePath < CONCAT(:treePath, '0')) " +
+           "ORDER BY m.parentId, m.sortOrder ASC")
+    List<Menu> findSubtree(@Param("treePath") String treePath);
+
+    /**
+     * 移動子樹時以一條 UPDATE 改寫所有後代的物化路徑前綴
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Menu m " +
+           "SET m.treePath = CONCAT(:newPath, SUBSTRING(m.treePath, LENGTH(:oldPath) + 1)) " +
+           "WHERE m.treePath >= CONCAT(:oldPath, '/') AND m.treePath < CONCAT(:oldPath, '0')")
+    int repathDescendants(@Param("oldPath") String oldPath, @Param("newPath") String newPath);
+
+    /**
+     * 只讀取物化路徑，不載入實體
+     */
+    @Query("SELECT m.treePath FROM Menu m WHERE m.id = :id")
+    String findTreePathById(@Param("id") Long id);
+
+    /**
+     * 按ID順序對選單加寫鎖，固定加鎖順序以避免死鎖
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Menu m WHERE m.id IN :ids ORDER BY m.id")
+    List<Menu> lockAllById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批量查詢存在的選單ID
+     */
+    @Query("SELECT m.id FROM Menu m WHERE m.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
     /**
      * 根據路由路徑查詢選單
      */
@@ -99,12 +193,10 @@ public interface MenuRepository extends JpaRepository<Menu, Long> {
     /**
      * 查詢所有可見的選單，按父級和排序排列
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = EntityCacheService.MENU_QUERY_REGION)
+    })
     @Query("SELECT m FROM Menu m WHERE m.visible = 1 ORDER BY m.parentId, m.sortOrder ASC")
     List<Menu> findAllVisibleMenus();
-
-    /**
-     * 根據選單名稱模糊查詢
-     */
-    @Query("SELECT m FROM Menu m WHERE m.name LIKE %:name% ORDER BY m.sortOrder ASC")
-    List<Menu> findByNameContaining(@Param("name") String name);
 }
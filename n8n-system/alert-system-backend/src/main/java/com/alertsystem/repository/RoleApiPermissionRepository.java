@@ -18,6 +18,12 @@ public interface RoleApiPermissionRepository extends JpaRepository<RoleApiPermis
      */
     List<RoleApiPermission> findByRoleId(Long roleId);
     
+    /**
+     * 根據角色ID查找已授權的API資源ID
+     */
+    @Query("SELECT rap.apiResourceId FROM RoleApiPermission rap WHERE rap.roleId = :roleId")
+    List<Long> findApiResourceIdsByRoleId(@Param("roleId") Long roleId);
+    
     /**
      * 根據API資源ID查找權限
      */
@@ -0,0 +1,180 @@
+package com.alertsystem.repository;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 角色授權關聯的集合式寫入
+ * 角色選單與角色API權限只寫入差異部分。PostgreSQL 上每次插入或刪除都以單條語句配合 bigint 陣列參數完成；
+ * 其他資料庫（如測試用的 H2）沒有 unnest 與 ON CONFLICT，改以 {@link JdbcTemplate#batchUpdate} 逐列批次寫入。
+ */
+@Repository
+public class RoleAssignmentJdbcRepository {
+
+    private static final String SELECT_ROLE_MENU_IDS =
+            "SELECT menu_id FROM role_menus WHERE role_id = ?";
+    private static final String INSERT_ROLE_MENUS =
+            "INSERT INTO role_menus (role_id, menu_id) SELECT ?, unnest(?) ON CONFLICT DO NOTHING";
+    private static final String DELETE_ROLE_MENUS =
+            "DELETE FROM role_menus WHERE role_id = ? AND menu_id = ANY(?)";
+
+    private static final String INSERT_ROLE_API_PERMISSIONS =
+            "INSERT INTO role_api_permissions (role_id, api_resource_id, created_by, created_at) " +
+            "SELECT ?, unnest(?), ?, CURRENT_TIMESTAMP ON CONFLICT DO NOTHING";
+    private static final String DELETE_ROLE_API_PERMISSIONS =
+            "DELETE FROM role_api_permissions WHERE role_id = ? AND api_resource_id = ANY(?)";
+
+    // 非 PostgreSQL 的逐列語句
+    private static final String INSERT_ROLE_MENU_ROW =
+            "INSERT INTO role_menus (role_id, menu_id) SELECT ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM role_menus WHERE role_id = ? AND menu_id = ?)";
+    private static final String DELETE_ROLE_MENU_ROW =
+            "DELETE FROM role_menus WHERE role_id = ? AND menu_id = ?";
+
+    private static final String INSERT_ROLE_API_PERMISSION_ROW =
+            "INSERT INTO role_api_permissions (role_id, api_resource_id, created_by, created_at) " +
+            "SELECT ?, ?, ?, CURRENT_TIMESTAMP " +
+            "WHERE NOT EXISTS (SELECT 1 FROM role_api_permissions WHERE role_id = ? AND api_resource_id = ?)";
+    private static final String DELETE_ROLE_API_PERMISSION_ROW =
+            "DELETE FROM role_api_permissions WHERE role_id = ? AND api_resource_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public RoleAssignmentJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = "PostgreSQL".equals(databaseProductName(jdbcTemplate));
+    }
+
+    /**
+     * 查詢角色已分配的選單ID
+     */
+    public List<Long> findMenuIdsByRoleId(Long roleId) {
+        return jdbcTemplate.queryForList(SELECT_ROLE_MENU_IDS, Long.class, roleId);
+    }
+
+    /**
+     * 為角色新增選單，已存在的關聯會被忽略
+     */
+    public int insertRoleMenus(Long roleId, Collection<Long> menuIds) {
+        if (menuIds.isEmpty()) {
+            return 0;
+        }
+        if (!postgres) {
+            List<Object[]> rows = new ArrayList<>(menuIds.size());
+            for (Long menuId : menuIds) {
+                rows.add(new Object[]{roleId, menuId, roleId, menuId});
+            }
+            return affectedRows(jdbcTemplate.batchUpdate(INSERT_ROLE_MENU_ROW, rows));
+        }
+        return jdbcTemplate.update(INSERT_ROLE_MENUS, ps -> {
+            ps.setLong(1, roleId);
+            ps.setArray(2, toBigintArray(ps, menuIds));
+        });
+    }
+
+    /**
+     * 移除角色的指定選單
+     */
+    public int deleteRoleMenus(Long roleId, Collection<Long> menuIds) {
+        if (menuIds.isEmpty()) {
+            return 0;
+        }
+        if (!postgres) {
+            List<Object[]> rows = new ArrayList<>(menuIds.size());
+            for (Long menuId : menuIds) {
+                rows.add(new Object[]{roleId, menuId});
+            }
+            return affectedRows(jdbcTemplate.batchUpdate(DELETE_ROLE_MENU_ROW, rows));
+        }
+        return jdbcTemplate.update(DELETE_ROLE_MENUS, ps -> {
+            ps.setLong(1, roleId);
+            ps.setArray(2, toBigintArray(ps, menuIds));
+        });
+    }
+
+    /**
+     * 為角色新增API權限，已存在的關聯會被忽略
+     */
+    public int insertRoleApiPermissions(Long roleId, Collection<Long> apiResourceIds, Long createdBy) {
+        if (apiResourceIds.isEmpty()) {
+            return 0;
+        }
+        if (!postgres) {
+            List<Object[]> rows = new ArrayList<>(apiResourceIds.size());
+            for (Long apiResourceId : apiResourceIds) {
+                rows.add(new Object[]{roleId, apiResourceId, createdBy, roleId, apiResourceId});
+            }
+            return affectedRows(jdbcTemplate.batchUpdate(INSERT_ROLE_API_PERMISSION_ROW, rows,
+                    new int[]{Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT}));
+        }
+        return jdbcTemplate.update(INSERT_ROLE_API_PERMISSIONS, ps -> {
+            ps.setLong(1, roleId);
+            ps.setArray(2, toBigintArray(ps, apiResourceIds));
+            ps.setObject(3, createdBy, Types.BIGINT);
+        });
+    }
+
+    /**
+     * 移除角色的指定API權限
+     */
+    public int deleteRoleApiPermissions(Long roleId, Collection<Long> apiResourceIds) {
+        if (apiResourceIds.isEmpty()) {
+            return 0;
+        }
+        if (!postgres) {
+            List<Object[]> rows = new ArrayList<>(apiResourceIds.size());
+            for (Long apiResourceId : apiResourceIds) {
+                rows.add(new Object[]{roleId, apiResourceId});
+            }
+            return affectedRows(jdbcTemplate.batchUpdate(DELETE_ROLE_API_PERMISSION_ROW, rows));
+        }
+        return jdbcTemplate.update(DELETE_ROLE_API_PERMISSIONS, ps -> {
+            ps.setLong(1, roleId);
+            ps.setArray(2, toBigintArray(ps, apiResourceIds));
+        });
+    }
+
+    private static Array toBigintArray(PreparedStatement ps, Collection<Long> ids) throws SQLException {
+        Connection connection = ps.getConnection();
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+
+    /**
+     * 批次各列的影響筆數加總，驅動未回報筆數的列視為已寫入
+     */
+    private static int affectedRows(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                total += count;
+            } else if (count == Statement.SUCCESS_NO_INFO) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private static String databaseProductName(JdbcTemplate jdbcTemplate) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException ex) {
+            throw new DataAccessResourceFailureException("無法取得資料庫類型", ex);
+        }
+    }
+}
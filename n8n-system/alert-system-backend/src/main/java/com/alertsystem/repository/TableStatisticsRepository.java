@@ -0,0 +1,28 @@
+package com.alertsystem.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 資料表統計信息查詢
+ */
+@Repository
+@RequiredArgsConstructor
+public class TableStatisticsRepository {
+
+    private static final String ESTIMATE_ROW_COUNT =
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 以 pg_class.reltuples 估算資料表行數，資料表從未 ANALYZE 時返回 -1
+     */
+    public long estimateRowCount(String tableName) {
+        List<Long> result = jdbcTemplate.queryForList(ESTIMATE_ROW_COUNT, Long.class, tableName);
+        return result.isEmpty() || result.get(0) == null ? -1L : result.get(0);
+    }
+}
@@ -0,0 +1,133 @@
+package com.alertsystem.search;
+
+import com.alertsystem.entity.ApiResource;
+import com.alertsystem.entity.Menu;
+import com.alertsystem.repository.ApiResourceRepository;
+import com.alertsystem.repository.MenuRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 記憶體 n-gram 搜尋引擎，供不支援 pg_trgm 的資料庫（H2 / 測試環境）使用
+ * 索引在首次搜尋時載入，API資源或選單寫入提交後由 {@link com.alertsystem.service.PermissionSyncService} 失效
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "search.engine", havingValue = "memory")
+public class InMemoryNGramSearchEngine implements SubstringSearchEngine {
+
+    private static final Sort SORT_ORDER = Sort.by("sortOrder", "id");
+
+    private final ApiResourceRepository apiResourceRepository;
+    private final MenuRepository menuRepository;
+
+    private final IndexHolder<ApiResourceIndex> apiResourceIndex = new IndexHolder<>();
+    private final IndexHolder<NGramIndex> menuIndex = new IndexHolder<>();
+
+    @Override
+    public Page<Long> searchApiResources(String keyword, String moduleName, Boolean isEnabled, Pageable pageable) {
+        ApiResourceIndex index = apiResourceIndex.get(this::buildApiResourceIndex);
+        List<Long> matched = index.ngrams().search(keyword,
+                id -> index.attributes().get(id).matches(moduleName, isEnabled));
+        int from = (int) Math.min(pageable.getOffset(), matched.size());
+        int to = Math.min(from + pageable.getPageSize(), matched.size());
+        return new PageImpl<>(matched.subList(from, to), pageable, matched.size());
+    }
+
+    @Override
+    public List<Long> searchMenus(String keyword, int limit) {
+        return menuIndex.get(this::buildMenuIndex).search(keyword, limit);
+    }
+
+    @Override
+    public void invalidateApiResources() {
+        apiResourceIndex.invalidate();
+    }
+
+    @Override
+    public void invalidateMenus() {
+        menuIndex.invalidate();
+    }
+
+    private ApiResourceIndex buildApiResourceIndex() {
+        NGramIndex.Builder builder = NGramIndex.builder();
+        Map<Long, ApiResourceAttributes> attributes = new HashMap<>();
+        for (ApiResource apiResource : apiResourceRepository.findAll(SORT_ORDER)) {
+            builder.add(apiResource.getId(), apiResource.getApiName(), apiResource.getApiPath());
+            attributes.put(apiResource.getId(),
+                    new ApiResourceAttributes(apiResource.getModuleName(), apiResource.getIsEnabled()));
+        }
+        NGramIndex index = builder.build();
+        log.debug("API資源搜尋索引已建立: {} 筆", index.size());
+        return new ApiResourceIndex(index, Map.copyOf(attributes));
+    }
+
+    private NGramIndex buildMenuIndex() {
+        NGramIndex.Builder builder = NGramIndex.builder();
+        for (Menu menu : menuRepository.findAll(SORT_ORDER)) {
+            builder.add(menu.getId(), menu.getName());
+        }
+        NGramIndex index = builder.build();
+        log.debug("選單搜尋索引已建立: {} 筆", index.size());
+        return index;
+    }
+
+    /**
+     * API資源索引及篩選用的欄位
+     */
+    private record ApiResourceIndex(NGramIndex ngrams, Map<Long, ApiResourceAttributes> attributes) {
+    }
+
+    private record ApiResourceAttributes(String moduleName, Boolean isEnabled) {
+
+        boolean matches(String moduleName, Boolean isEnabled) {
+            return (moduleName == null || moduleName.equals(this.moduleName))
+                    && (isEnabled == null || isEnabled.equals(this.isEnabled));
+        }
+    }
+
+    /**
+     * 延遲載入的索引引用，版本號避免失效前開始的載入把舊索引寫回
+     */
+    private static final class IndexHolder<T> {
+
+        private final AtomicLong version = new AtomicLong();
+        private volatile T index;
+
+        T get(Supplier<T> loader) {
+            T current = index;
+            if (current != null) {
+                return current;
+            }
+            synchronized (this) {
+                if (index != null) {
+                    return index;
+                }
+                long expected = version.get();
+                T loaded = loader.get();
+                if (version.get() == expected) {
+                    index = loaded;
+                }
+                return loaded;
+            }
+        }
+
+        void invalidate() {
+            version.incrementAndGet();
+            index = null;
+        }
+    }
+}
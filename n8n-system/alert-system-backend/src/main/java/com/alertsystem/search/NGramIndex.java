@@ -0,0 +1,208 @@
+package com.alertsystem.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+/**
+ * 記憶體三元組倒排索引，建立後不可變
+ * 長度不少於 3 的關鍵字先以三元組倒排表求交集縮小候選，再逐筆驗證子字串；
+ * 排序分數近似 pg_trgm 的 similarity()，即按詞補空白後的三元組集合 Jaccard 係數。
+ */
+final class NGramIndex {
+
+    private static final int N = 3;
+
+    private final List<Document> documents;
+    private final Map<String, int[]> postings;
+
+    private NGramIndex(List<Document> documents, Map<String, int[]> postings) {
+        this.documents = documents;
+        this.postings = postings;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    /**
+     * 返回欄位包含關鍵字的文件ID，按相似度由高到低，相同時保持加入順序
+     */
+    List<Long> search(String keyword, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return rank(keyword, id -> true).stream()
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * 返回欄位包含關鍵字且通過篩選的全部文件ID，排序同 {@link #search(String, int)}
+     */
+    List<Long> search(String keyword, LongPredicate filter) {
+        return rank(keyword, filter);
+    }
+
+    private List<Long> rank(String keyword, LongPredicate filter) {
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+        Set<String> queryGrams = similarityGrams(query);
+        List<Hit> hits = new ArrayList<>();
+        for (int doc : candidates(query)) {
+            Document document = documents.get(doc);
+            if (!filter.test(document.id())) {
+                continue;
+            }
+            double score = -1;
+            for (int i = 0; i < document.fields().length; i++) {
+                if (document.fields()[i].contains(query)) {
+                    score = Math.max(score, similarity(queryGrams, document.grams().get(i)));
+                }
+            }
+            if (score >= 0) {
+                hits.add(new Hit(doc, score));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingInt(Hit::doc));
+        return hits.stream()
+                .map(hit -> documents.get(hit.doc()).id())
+                .toList();
+    }
+
+    private int[] candidates(String query) {
+        if (query.length() < N) {
+            int[] all = new int[documents.size()];
+            Arrays.setAll(all, i -> i);
+            return all;
+        }
+        List<int[]> lists = new ArrayList<>();
+        for (String gram : substringGrams(query)) {
+            int[] list = postings.get(gram);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.length));
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[k++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String gram : a) {
+            if (b.contains(gram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 原文連續三元組，用於子字串候選篩選
+     */
+    private static Set<String> substringGrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + N <= text.length(); i++) {
+            grams.add(text.substring(i, i + N));
+        }
+        return grams;
+    }
+
+    /**
+     * 按非字母數字切詞，每詞前補兩個空白、後補一個空白後取三元組，與 pg_trgm 一致
+     */
+    private static Set<String> similarityGrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (String word : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                grams.addAll(substringGrams("  " + word + " "));
+            }
+        }
+        return grams;
+    }
+
+    private record Document(long id, String[] fields, List<Set<String>> grams) {
+    }
+
+    private record Hit(int doc, double score) {
+    }
+
+    /**
+     * 索引構建器，文件應按期望的同分順序加入
+     */
+    static final class Builder {
+
+        private final List<Document> documents = new ArrayList<>();
+        private final Map<String, List<Integer>> postings = new HashMap<>();
+
+        private Builder() {
+        }
+
+        Builder add(long id, String... fields) {
+            int doc = documents.size();
+            String[] normalized = new String[fields.length];
+            List<Set<String>> grams = new ArrayList<>(fields.length);
+            Set<String> docGrams = new HashSet<>();
+            for (int i = 0; i < fields.length; i++) {
+                normalized[i] = normalize(fields[i]);
+                grams.add(similarityGrams(normalized[i]));
+                docGrams.addAll(substringGrams(normalized[i]));
+            }
+            for (String gram : docGrams) {
+                postings.computeIfAbsent(gram, key -> new ArrayList<>()).add(doc);
+            }
+            documents.add(new Document(id, normalized, List.copyOf(grams)));
+            return this;
+        }
+
+        NGramIndex build() {
+            Map<String, int[]> frozen = new HashMap<>(postings.size() * 2);
+            postings.forEach((gram, docs) -> frozen.put(gram, docs.stream().mapToInt(Integer::intValue).toArray()));
+            return new NGramIndex(List.copyOf(documents), frozen);
+        }
+    }
+}
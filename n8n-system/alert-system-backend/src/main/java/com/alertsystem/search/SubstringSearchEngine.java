@@ -0,0 +1,41 @@
+package com.alertsystem.search;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * 子字串搜尋引擎
+ * 以不區分大小寫的子字串匹配篩選API資源與選單，按三元組相似度由高到低返回ID，
+ * 相似度相同時按 (sort_order, id) 排序。
+ * 由 search.engine 選擇實作：pg-trgm 使用 PostgreSQL pg_trgm 索引，memory 使用記憶體 n-gram 索引。
+ */
+public interface SubstringSearchEngine {
+
+    /**
+     * 搜尋API名稱或路徑包含關鍵字的API資源，模組與啟用狀態篩選在分頁前完成
+     *
+     * @param moduleName 模組名稱，null 表示不限
+     * @param isEnabled  啟用狀態，null 表示不限
+     * @return 當頁API資源ID及符合條件的總數
+     */
+    Page<Long> searchApiResources(String keyword, String moduleName, Boolean isEnabled, Pageable pageable);
+
+    /**
+     * 搜尋名稱包含關鍵字的選單
+     */
+    List<Long> searchMenus(String keyword, int limit);
+
+    /**
+     * API資源寫入提交後調用
+     */
+    default void invalidateApiResources() {
+    }
+
+    /**
+     * 選單寫入提交後調用
+     */
+    default void invalidateMenus() {
+    }
+}
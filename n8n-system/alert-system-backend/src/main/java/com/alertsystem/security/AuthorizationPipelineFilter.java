@@ -0,0 +1,254 @@
+package com.alertsystem.security;
+
+import com.alertsystem.service.DynamicPermissionService;
+import com.alertsystem.service.PermissionSyncService;
+import com.alertsystem.service.UserStatusService;
+import com.alertsystem.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 認證與授權管線
+ * 每個請求只經過這一個過濾器：解析 JWT 建立用戶主體，再計算一次公開/認證/權限判斷，
+ * 判斷結果以 {@link RequestAuthorization} 存入請求屬性，供 {@code @PreAuthorize} 重用。
+ * 管線耗時以 {@code authorization.pipeline} 計時器按判斷結果輸出。
+ */
+@Component
+@Slf4j
+public class AuthorizationPipelineFilter extends OncePerRequestFilter {
+
+    /**
+     * 已解析的 JWT claims 請求屬性，供控制器重用
+     */
+    public static final String JWT_CLAIMS_ATTRIBUTE = AuthorizationPipelineFilter.class.getName() + ".CLAIMS";
+
+    private final JwtUtil jwtUtil;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final PermissionSyncService permissionSyncService;
+    private final UserStatusService userStatusService;
+    private final DynamicPermissionService permissionService;
+    private final JwtAuthenticationEntryPoint authenticationEntryPoint;
+    private final ObjectMapper objectMapper;
+    private final Map<RequestAuthorization.Outcome, Timer> pipelineTimers;
+
+    @Value("${jwt.stateless-principal:true}")
+    private boolean statelessPrincipal;
+
+    public AuthorizationPipelineFilter(JwtUtil jwtUtil,
+                                       UserDetailsService userDetailsService,
+                                       TokenRevocationService tokenRevocationService,
+                                       PermissionSyncService permissionSyncService,
+                                       UserStatusService userStatusService,
+                                       DynamicPermissionService permissionService,
+                                       JwtAuthenticationEntryPoint authenticationEntryPoint,
+                                       ObjectMapper objectMapper,
+                                       MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.permissionSyncService = permissionSyncService;
+        this.userStatusService = userStatusService;
+        this.permissionService = permissionService;
+        this.authenticationEntryPoint = authenticationEntryPoint;
+        this.objectMapper = objectMapper;
+
+        // 每種判斷結果預先註冊計時器，請求路徑上不再構建與查找
+        this.pipelineTimers = new EnumMap<>(RequestAuthorization.Outcome.class);
+        for (RequestAuthorization.Outcome outcome : RequestAuthorization.Outcome.values()) {
+            pipelineTimers.put(outcome, Timer.builder("authorization.pipeline")
+                .tag("outcome", outcome.name())
+                .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, 
+                                  HttpServletResponse response, 
+                                  FilterChain filterChain) throws ServletException, IOException {
+        
+        long start = System.nanoTime();
+        authenticate(request);
+        RequestAuthorization authorization = authorize(request);
+        request.setAttribute(RequestAuthorization.ATTRIBUTE, authorization);
+        pipelineTimers.get(authorization.getOutcome()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        switch (authorization.getOutcome()) {
+            case UNAUTHENTICATED -> authenticationEntryPoint.commence(request, response,
+                new InsufficientAuthenticationException("需要認證才能訪問"));
+            case DENIED -> handleAccessDenied(response, authorization);
+            default -> filterChain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * 解析 JWT 並設置安全上下文，token 無效時保持未認證
+     */
+    private void authenticate(HttpServletRequest request) {
+        try {
+            String jwt = getJwtFromRequest(request);
+            Claims claims = StringUtils.hasText(jwt) ? jwtUtil.parseClaims(jwt) : null;
+            
+            // refresh token 只能用於換發，不能訪問 API
+            if (jwtUtil.isAccessToken(claims)) {
+                request.setAttribute(JWT_CLAIMS_ATTRIBUTE, claims);
+                
+                // 檢查 token 是否已被登出撤銷
+                String username = tokenRevocationService.isRevoked(jwt, claims) ? null : claims.getSubject();
+                
+                if (StringUtils.hasText(username)) {
+                    UserDetails userDetails = resolveUserDetails(claims, username);
+                    
+                    if (userDetails.isEnabled()
+                            && userDetails.isAccountNonLocked()
+                            && jwtUtil.validateClaims(claims, userDetails.getUsername())) {
+                        UsernamePasswordAuthenticationToken authentication = 
+                            new UsernamePasswordAuthenticationToken(
+                                userDetails, null, userDetails.getAuthorities());
+                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                        
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            log.error("無法設置用戶認證", ex);
+        }
+    }
+
+    /**
+     * 計算授權判斷，context path 只在此移除一次
+     */
+    private RequestAuthorization authorize(HttpServletRequest request) {
+        String requestPath = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (contextPath != null && !contextPath.isEmpty() && requestPath.startsWith(contextPath)) {
+            requestPath = requestPath.substring(contextPath.length());
+        }
+
+        if (shouldSkipPermissionCheck(requestPath)) {
+            log.debug("跳過權限檢查: {} {}", request.getMethod(), requestPath);
+            return new RequestAuthorization(request.getMethod(), requestPath, null,
+                RequestAuthorization.Outcome.SKIPPED, null);
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return permissionService.authorize(request, requestPath, authentication);
+    }
+
+    /**
+     * 判斷是否需要跳過權限檢查
+     */
+    private boolean shouldSkipPermissionCheck(String requestPath) {
+        // 跳過靜態資源和健康檢查
+        return requestPath.startsWith("/static/") ||
+               requestPath.startsWith("/actuator/health") ||
+               requestPath.startsWith("/swagger-ui/") ||
+               requestPath.startsWith("/v3/api-docs/") ||
+               requestPath.equals("/favicon.ico");
+    }
+
+    /**
+     * 處理訪問被拒絕的情況
+     */
+    private void handleAccessDenied(HttpServletResponse response, RequestAuthorization authorization) throws IOException {
+        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("code", 403);
+        result.put("message", "權限不足");
+        result.put("data", null);
+        result.put("timestamp", System.currentTimeMillis());
+        result.put("path", authorization.getPath());
+        result.put("method", authorization.getMethod());
+
+        response.getWriter().write(objectMapper.writeValueAsString(result));
+
+        log.warn("用戶訪問被拒絕: {} {}", authorization.getMethod(), authorization.getPath());
+    }
+
+    /**
+     * token 所屬各角色的主體世代未變更且用戶不在非啟用名單時，直接由 claims 構建用戶主體，
+     * 否則從資料庫載入（含用戶狀態）
+     */
+    private UserDetails resolveUserDetails(Claims claims, String username) {
+        if (statelessPrincipal && isPrincipalCurrent(claims)) {
+            return principalFromClaims(claims);
+        }
+        return userDetailsService.loadUserByUsername(username);
+    }
+
+    private boolean isPrincipalCurrent(Claims claims) {
+        Number userId = claims.get(JwtUtil.CLAIM_USER_ID, Number.class);
+        if (userId == null || userStatusService.isPossiblyInactive(userId.longValue())) {
+            return false;
+        }
+        return permissionSyncService.isPrincipalCurrent(roleIdsOf(claims),
+            claims.get(JwtUtil.CLAIM_PERMISSION_VERSION, Map.class));
+    }
+
+    private static Set<Long> roleIdsOf(Claims claims) {
+        List<?> roleIds = claims.get(JwtUtil.CLAIM_ROLE_IDS, List.class);
+        return roleIds == null ? Set.of() : roleIds.stream()
+            .map(roleId -> ((Number) roleId).longValue())
+            .collect(Collectors.toSet());
+    }
+
+    private UserPrincipal principalFromClaims(Claims claims) {
+        List<?> authorities = claims.get(JwtUtil.CLAIM_AUTHORITIES, List.class);
+
+        return UserPrincipal.builder()
+            .id(claims.get(JwtUtil.CLAIM_USER_ID, Number.class).longValue())
+            .username(claims.getSubject())
+            .email(claims.get(JwtUtil.CLAIM_EMAIL, String.class))
+            .roleIds(roleIdsOf(claims))
+            .authorities(authorities == null ? List.of() : authorities.stream()
+                .map(authority -> new SimpleGrantedAuthority(authority.toString()))
+                .collect(Collectors.toList()))
+            // 僅在確認用戶不在非啟用名單後才會由 claims 構建
+            .enabled(true)
+            .build();
+    }
+
+    private String getJwtFromRequest(HttpServletRequest request) {
+        String bearerToken = request.getHeader("Authorization");
+        
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        
+        log.debug("No valid Bearer token found in Authorization header");
+        return null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.alertsystem.security;
 
+import com.alertsystem.entity.Role;
 import com.alertsystem.entity.User;
 import com.alertsystem.repository.MenuRepository;
 import com.alertsystem.repository.UserRepository;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,11 +45,16 @@ public class CustomUserDetailsService implements UserDetailsService {
             .map(SimpleGrantedAuthority::new)
             .collect(Collectors.toList()));
 
+        Set<Long> roleIds = user.getRoles().stream()
+            .map(Role::getId)
+            .collect(Collectors.toSet());
+
         return UserPrincipal.builder()
             .id(user.getId())
             .username(user.getUsername())
             .email(user.getEmail())
             .password(user.getPasswordHash())
+            .roleIds(roleIds)
             .authorities(authorities)
             .enabled(user.getStatus() == User.UserStatus.ACTIVE)
             .build();
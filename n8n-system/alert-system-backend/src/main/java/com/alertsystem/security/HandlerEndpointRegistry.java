@@ -0,0 +1,143 @@
+package com.alertsystem.security;
+
+import com.alertsystem.AlertSystemBackendApplication;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 控制器端點註冊表
+ * 將請求解析為 Spring MVC 處理器映射的路徑模式（如 /api/menus/{id}），
+ * 使權限判斷與緩存以有限的端點模式為鍵，而不是無限的原始請求路徑。
+ */
+@Slf4j
+@Component
+public class HandlerEndpointRegistry {
+
+    /**
+     * 已解析的處理器路徑模式請求屬性，未匹配任何處理器時不設置
+     */
+    public static final String HANDLER_PATTERN_ATTRIBUTE = HandlerEndpointRegistry.class.getName() + ".pattern";
+
+    private static final String RESOLVED_ATTRIBUTE = HandlerEndpointRegistry.class.getName() + ".resolved";
+
+    private static final List<String> ALL_METHODS = List.of("GET", "POST", "PUT", "DELETE", "PATCH");
+
+    private static final String APPLICATION_PACKAGE = AlertSystemBackendApplication.class.getPackageName();
+
+    private final ObjectProvider<RequestMappingHandlerMapping> handlerMappingProvider;
+
+    private volatile List<Endpoint> endpoints;
+
+    public HandlerEndpointRegistry(
+            @Qualifier("requestMappingHandlerMapping") ObjectProvider<RequestMappingHandlerMapping> handlerMappingProvider) {
+        this.handlerMappingProvider = handlerMappingProvider;
+    }
+
+    /**
+     * 解析請求對應的處理器路徑模式，每個請求只解析一次
+     *
+     * @return 路徑模式，無匹配處理器時返回 null
+     */
+    public String resolvePattern(HttpServletRequest request) {
+        if (request.getAttribute(RESOLVED_ATTRIBUTE) != null) {
+            return (String) request.getAttribute(HANDLER_PATTERN_ATTRIBUTE);
+        }
+        request.setAttribute(RESOLVED_ATTRIBUTE, Boolean.TRUE);
+
+        RequestMappingHandlerMapping handlerMapping = handlerMappingProvider.getIfAvailable();
+        if (handlerMapping == null) {
+            return null;
+        }
+        boolean parsed = false;
+        try {
+            if (!ServletRequestPathUtils.hasParsedRequestPath(request)) {
+                ServletRequestPathUtils.parseAndCache(request);
+                parsed = true;
+            }
+            if (handlerMapping.getHandler(request) == null) {
+                return null;
+            }
+            Object bestPattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String pattern = bestPattern != null ? bestPattern.toString() : null;
+            request.setAttribute(HANDLER_PATTERN_ATTRIBUTE, pattern);
+            return pattern;
+        } catch (Exception e) {
+            // 方法不支援、媒體類型不符等情況交由 DispatcherServlet 處理
+            log.debug("無法解析處理器路徑模式: {} {} - {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+            return null;
+        } finally {
+            if (parsed) {
+                ServletRequestPathUtils.clearParsedRequestPath(request);
+            }
+        }
+    }
+
+    /**
+     * 所有已註冊的控制器端點，未限定HTTP方法的映射展開為常用方法
+     */
+    public List<Endpoint> getEndpoints() {
+        List<Endpoint> result = endpoints;
+        if (result == null) {
+            RequestMappingHandlerMapping handlerMapping = handlerMappingProvider.getIfAvailable();
+            if (handlerMapping == null) {
+                return List.of();
+            }
+            result = collectEndpoints(handlerMapping.getHandlerMethods());
+            if (!result.isEmpty()) {
+                endpoints = result;
+            }
+        }
+        return result;
+    }
+
+    private List<Endpoint> collectEndpoints(Map<RequestMappingInfo, HandlerMethod> handlerMethods) {
+        List<Endpoint> result = new ArrayList<>();
+        handlerMethods.forEach((info, handlerMethod) -> {
+            Set<RequestMethod> methods = info.getMethodsCondition().getMethods();
+            List<String> methodNames = methods.isEmpty()
+                    ? ALL_METHODS
+                    : methods.stream().map(RequestMethod::name).toList();
+            String handler = handlerMethod.getBeanType().getSimpleName() + "#" + handlerMethod.getMethod().getName();
+            boolean application = handlerMethod.getBeanType().getPackageName().startsWith(APPLICATION_PACKAGE);
+            for (String pattern : info.getPatternValues()) {
+                for (String method : methodNames) {
+                    result.add(new Endpoint(method, pattern, handler, application));
+                }
+            }
+        });
+        return List.copyOf(result);
+    }
+
+    /**
+     * 控制器端點
+     *
+     * @param application 是否為本應用的控制器（排除框架內建端點）
+     */
+    public record Endpoint(String method, String pattern, String handler, boolean application) {
+
+        public String key() {
+            return bindingKey(method, pattern);
+        }
+    }
+
+    /**
+     * 端點綁定鍵
+     */
+    public static String bindingKey(String method, String pattern) {
+        return method.toUpperCase() + " " + pattern;
+    }
+}
@@ -0,0 +1,17 @@
+package com.alertsystem.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * 密碼雜湊執行緒池已滿，請求被快速拒絕
+ */
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
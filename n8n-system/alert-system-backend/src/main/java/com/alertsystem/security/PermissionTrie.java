@@ -0,0 +1,264 @@
+package com.alertsystem.security;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 權限路徑前綴樹
+ * 由所有啟用的API資源與角色API權限編譯而成，建立後不可變。
+ * 每個節點對應一個路徑段，終端節點按HTTP方法保存角色位元集，
+ * 權限檢查只需走訪一次樹並與用戶角色位元集做AND運算。
+ */
+public final class PermissionTrie {
+
+    private static final AntPathMatcher SEGMENT_MATCHER = new AntPathMatcher();
+
+    private final Node root;
+    private final Map<Long, Integer> roleIndex;
+    private final int resourceCount;
+
+    private PermissionTrie(Node root, Map<Long, Integer> roleIndex, int resourceCount) {
+        this.root = root;
+        this.roleIndex = roleIndex;
+        this.resourceCount = resourceCount;
+    }
+
+    public static PermissionTrie empty() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 將角色ID集合轉換為位元集
+     */
+    public BitSet roleMask(Collection<Long> roleIds) {
+        BitSet mask = new BitSet(roleIndex.size());
+        if (roleIds == null) {
+            return mask;
+        }
+        for (Long roleId : roleIds) {
+            Integer bit = roleIndex.get(roleId);
+            if (bit != null) {
+                mask.set(bit);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 檢查是否為公開API
+     */
+    public boolean isPublic(String path, String method) {
+        return match(root, tokenize(path), 0, normalizeMethod(method), null);
+    }
+
+    /**
+     * 檢查角色位元集是否有權限訪問指定API
+     */
+    public boolean isPermitted(BitSet roleMask, String path, String method) {
+        if (roleMask == null || roleMask.isEmpty()) {
+            return false;
+        }
+        return match(root, tokenize(path), 0, normalizeMethod(method), roleMask);
+    }
+
+    public int getResourceCount() {
+        return resourceCount;
+    }
+
+    public int getRoleCount() {
+        return roleIndex.size();
+    }
+
+    /**
+     * 深度優先匹配，roleMask 為 null 時只檢查公開標記
+     */
+    private static boolean match(Node node, String[] segments, int index, String method, BitSet roleMask) {
+        if (index == segments.length && node.accepts(method, roleMask)) {
+            return true;
+        }
+        if (node.multiWildcard != null) {
+            for (int i = index; i <= segments.length; i++) {
+                if (match(node.multiWildcard, segments, i, method, roleMask)) {
+                    return true;
+                }
+            }
+        }
+        if (index == segments.length) {
+            return false;
+        }
+        String segment = segments[index];
+        Node literal = node.literals.get(segment);
+        if (literal != null && match(literal, segments, index + 1, method, roleMask)) {
+            return true;
+        }
+        if (node.singleWildcard != null && match(node.singleWildcard, segments, index + 1, method, roleMask)) {
+            return true;
+        }
+        for (PatternEdge edge : node.patterns) {
+            if (SEGMENT_MATCHER.match(edge.pattern(), segment)
+                    && match(edge.node(), segments, index + 1, method, roleMask)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static String[] tokenize(String path) {
+        if (path == null || path.isEmpty()) {
+            return new String[0];
+        }
+        List<String> tokens = new ArrayList<>(8);
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/') {
+                if (i > start) {
+                    tokens.add(path.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private static String normalizeMethod(String method) {
+        return method == null ? "" : method.toUpperCase();
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2
+                && segment.charAt(0) == '{'
+                && segment.charAt(segment.length() - 1) == '}'
+                && segment.indexOf(':') < 0
+                && segment.indexOf('{', 1) < 0;
+    }
+
+    private static boolean isPattern(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    /**
+     * 樹節點
+     */
+    private static final class Node {
+        private Map<String, Node> literals = new HashMap<>();
+        private Node singleWildcard;
+        private Node multiWildcard;
+        private List<PatternEdge> patterns = new ArrayList<>();
+        private Map<String, BitSet> grants = new HashMap<>();
+        private Set<String> publicMethods = new HashSet<>();
+
+        private boolean accepts(String method, BitSet roleMask) {
+            if (roleMask == null) {
+                return publicMethods.contains(method);
+            }
+            BitSet roles = grants.get(method);
+            return roles != null && roles.intersects(roleMask);
+        }
+
+        private Node child(String segment) {
+            if ("**".equals(segment)) {
+                if (multiWildcard == null) {
+                    multiWildcard = new Node();
+                }
+                return multiWildcard;
+            }
+            if ("*".equals(segment) || isVariable(segment)) {
+                if (singleWildcard == null) {
+                    singleWildcard = new Node();
+                }
+                return singleWildcard;
+            }
+            if (isPattern(segment)) {
+                for (PatternEdge edge : patterns) {
+                    if (edge.pattern().equals(segment)) {
+                        return edge.node();
+                    }
+                }
+                Node node = new Node();
+                patterns.add(new PatternEdge(segment, node));
+                return node;
+            }
+            return literals.computeIfAbsent(segment, key -> new Node());
+        }
+
+        private void freeze() {
+            literals = literals.isEmpty() ? Collections.emptyMap() : Map.copyOf(literals);
+            patterns = patterns.isEmpty() ? Collections.emptyList() : List.copyOf(patterns);
+            grants = grants.isEmpty() ? Collections.emptyMap() : Map.copyOf(grants);
+            publicMethods = publicMethods.isEmpty() ? Collections.emptySet() : Set.copyOf(publicMethods);
+            literals.values().forEach(Node::freeze);
+            patterns.forEach(edge -> edge.node().freeze());
+            if (singleWildcard != null) {
+                singleWildcard.freeze();
+            }
+            if (multiWildcard != null) {
+                multiWildcard.freeze();
+            }
+        }
+    }
+
+    private record PatternEdge(String pattern, Node node) {
+    }
+
+    /**
+     * 前綴樹構建器，非執行緒安全
+     */
+    public static final class Builder {
+
+        private final Node root = new Node();
+        private final Map<Long, Integer> roleIndex = new HashMap<>();
+        private int resourceCount;
+        private boolean built;
+
+        private Builder() {
+        }
+
+        /**
+         * 加入一個API資源及其授權角色
+         */
+        public Builder add(String apiPath, String httpMethod, boolean isPublic, Collection<Long> roleIds) {
+            if (built) {
+                throw new IllegalStateException("PermissionTrie 已構建");
+            }
+            if (apiPath == null || httpMethod == null) {
+                return this;
+            }
+            Node node = root;
+            for (String segment : tokenize(apiPath)) {
+                node = node.child(segment);
+            }
+            String method = normalizeMethod(httpMethod);
+            if (isPublic) {
+                node.publicMethods.add(method);
+            }
+            BitSet roles = node.grants.computeIfAbsent(method, key -> new BitSet());
+            if (roleIds != null) {
+                for (Long roleId : roleIds) {
+                    roles.set(roleIndex.computeIfAbsent(roleId, key -> roleIndex.size()));
+                }
+            }
+            resourceCount++;
+            return this;
+        }
+
+        public PermissionTrie build() {
+            built = true;
+            root.freeze();
+            return new PermissionTrie(root, Map.copyOf(roleIndex), resourceCount);
+        }
+    }
+}
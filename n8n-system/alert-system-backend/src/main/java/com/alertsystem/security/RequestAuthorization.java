@@ -0,0 +1,107 @@
+package com.alertsystem.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 請求授權判斷結果
+ * 由 {@link AuthorizationPipelineFilter} 在每個請求中只計算一次並存入請求屬性，
+ * 之後的 {@code @PreAuthorize} 表達式（見 {@link RequestAuthorizationExpressions}）直接重用，不再重複判斷。
+ */
+@Getter
+public final class RequestAuthorization {
+
+    public static final String ATTRIBUTE = RequestAuthorization.class.getName();
+
+    private final String method;
+    private final String path;
+
+    /**
+     * 匹配的處理器路徑模式，未匹配時為 null
+     */
+    private final String handlerPattern;
+    private final Outcome outcome;
+    private final UserPrincipal principal;
+
+    private Set<String> authorityNames;
+
+    public RequestAuthorization(String method, String path, String handlerPattern,
+                                Outcome outcome, UserPrincipal principal) {
+        this.method = method;
+        this.path = path;
+        this.handlerPattern = handlerPattern;
+        this.outcome = outcome;
+        this.principal = principal;
+    }
+
+    /**
+     * 取得當前請求的授權判斷結果，不在請求上下文或尚未判斷時返回 null
+     */
+    public static RequestAuthorization current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (RequestAuthorization) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public static RequestAuthorization from(HttpServletRequest request) {
+        return (RequestAuthorization) request.getAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * 是否允許進入控制器
+     */
+    public boolean isGranted() {
+        return outcome == Outcome.SKIPPED || outcome == Outcome.PUBLIC || outcome == Outcome.PERMITTED;
+    }
+
+    /**
+     * 檢查當前用戶是否擁有指定權限標識，權限集合在首次檢查時建立
+     */
+    public boolean hasAuthority(String authority) {
+        if (principal == null || authority == null) {
+            return false;
+        }
+        Set<String> names = authorityNames;
+        if (names == null) {
+            names = new HashSet<>();
+            if (principal.getAuthorities() != null) {
+                for (GrantedAuthority grantedAuthority : principal.getAuthorities()) {
+                    names.add(grantedAuthority.getAuthority());
+                }
+            }
+            authorityNames = names;
+        }
+        return names.contains(authority);
+    }
+
+    /**
+     * 檢查當前用戶是否擁有指定角色
+     */
+    public boolean hasRole(String role) {
+        return role != null && hasAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role);
+    }
+
+    /**
+     * 判斷結果
+     */
+    public enum Outcome {
+        /** 靜態資源、健康檢查等不做權限檢查的路徑 */
+        SKIPPED,
+        /** 公開API */
+        PUBLIC,
+        /** 未認證 */
+        UNAUTHENTICATED,
+        /** 已認證但無權限 */
+        DENIED,
+        /** 已認證且有權限 */
+        PERMITTED
+    }
+}
@@ -0,0 +1,35 @@
+package com.alertsystem.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code @PreAuthorize} 使用的權限表達式，例如 {@code @PreAuthorize("@authz.hasAuthority('system:menu:view')")}
+ * 在請求上下文中重用 {@link RequestAuthorization} 的判斷結果，其他情況退回安全上下文中的認證信息。
+ */
+@Component("authz")
+public class RequestAuthorizationExpressions {
+
+    public boolean hasAuthority(String authority) {
+        RequestAuthorization authorization = RequestAuthorization.current();
+        if (authorization != null) {
+            return authorization.isGranted() && authorization.hasAuthority(authority);
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
+            if (grantedAuthority.getAuthority().equals(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasRole(String role) {
+        return role != null && hasAuthority(role.startsWith("ROLE_") ? role : "ROLE_" + role);
+    }
+}
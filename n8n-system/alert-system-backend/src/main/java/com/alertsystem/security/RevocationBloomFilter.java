@@ -0,0 +1,121 @@
+package com.alertsystem.security;
+
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按時間分桶的撤銷布隆過濾器
+ * 依 token 過期時間將撤銷記錄放入對應時間桶，桶內 token 全部過期後整桶丟棄，
+ * 記憶體只與有效期內的撤銷數量相關。判斷結果可能誤報但不會漏報，
+ * 命中時需由調用方再確認。
+ */
+public class RevocationBloomFilter {
+
+    private final long bucketMillis;
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final ConcurrentSkipListMap<Long, BloomFilter> buckets = new ConcurrentSkipListMap<>();
+
+    public RevocationBloomFilter(long bucketMillis, int expectedInsertions, double falsePositiveRate) {
+        this.bucketMillis = bucketMillis;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public void add(String tokenId, long expiresAt) {
+        buckets.computeIfAbsent(bucketOf(expiresAt),
+                key -> new BloomFilter(expectedInsertions, falsePositiveRate)).put(tokenId);
+    }
+
+    public boolean mightContain(String tokenId, long expiresAt) {
+        BloomFilter filter = buckets.get(bucketOf(expiresAt));
+        return filter != null && filter.mightContain(tokenId);
+    }
+
+    /**
+     * 丟棄所有已完全過期的時間桶
+     */
+    public void evictExpired(long now) {
+        ConcurrentNavigableMap<Long, BloomFilter> expired = buckets.headMap(bucketOf(now), false);
+        expired.clear();
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    private long bucketOf(long expiresAt) {
+        return Math.floorDiv(expiresAt, bucketMillis);
+    }
+
+    /**
+     * 執行緒安全的布隆過濾器
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long numBits;
+        private final int numHashes;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long size = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (size + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.numBits = (long) words * 64;
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        }
+
+        void put(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long index = indexOf(h1 + i * h2);
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                long index = indexOf(h1 + i * h2);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private long indexOf(int combined) {
+            return (combined & Integer.MAX_VALUE) % numBits;
+        }
+
+        /**
+         * FNV-1a 64 位雜湊後再做一次位元混合
+         */
+        private static long hash64(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
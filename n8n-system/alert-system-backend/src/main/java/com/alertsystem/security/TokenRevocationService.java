@@ -0,0 +1,217 @@
+package com.alertsystem.security;
+
+import com.alertsystem.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token 撤銷服務
+ * Redis 只保存被撤銷（登出）的 token ID，以撤銷時間為分數存於有序集合；
+ * 各節點在本地的時間分桶布隆過濾器中持有撤銷記錄，透過 pub/sub 即時同步，
+ * 並按撤銷時間增量輪詢補償遺失的訊息。布隆過濾器命中時再向 Redis 確認以排除誤報，
+ * 確認結果存入有界的本地近端緩存（存活時間不超過 token 過期時間），
+ * 誤報的 token 之後不再逐次查詢 Redis，Redis 故障期間也能繼續服務；
+ * 撤銷廣播會直接覆寫近端緩存中的結果。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationService implements MessageListener {
+
+    public static final String REVOCATION_KEY = "token:revocations";
+    public static final String REVOCATION_CHANNEL = "token:revoked";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final JwtUtil jwtUtil;
+
+    @Value("${jwt.revocation.bucket-size:3600000}")
+    private long bucketMillis;
+
+    @Value("${jwt.revocation.expected-insertions:10000}")
+    private int expectedInsertions;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    @Value("${jwt.refresh-expiration}")
+    private long maxTokenLifetime;
+
+    @Value("${jwt.revocation.near-cache.max-size:10000}")
+    private long nearCacheMaxSize;
+
+    @Value("${jwt.revocation.near-cache.ttl:600000}")
+    private long nearCacheTtl;
+
+    private RevocationBloomFilter bloomFilter;
+    private Cache<String, Confirmation> confirmations;
+    private volatile long lastSyncedAt;
+
+    @PostConstruct
+    public void init() {
+        this.bloomFilter = new RevocationBloomFilter(bucketMillis, expectedInsertions, falsePositiveRate);
+        this.confirmations = Caffeine.newBuilder()
+                .maximumSize(nearCacheMaxSize)
+                .expireAfter(new ConfirmationExpiry())
+                .build();
+        listenerContainer.addMessageListener(this, new ChannelTopic(REVOCATION_CHANNEL));
+    }
+
+    /**
+     * 檢查 token 是否已被撤銷
+     */
+    public boolean isRevoked(String jwt, Claims claims) {
+        long expiresAt = claims.getExpiration().getTime();
+        String tokenId = tokenIdOf(jwt, claims);
+        if (!bloomFilter.mightContain(tokenId, expiresAt)) {
+            return false;
+        }
+        Confirmation cached = confirmations.getIfPresent(tokenId);
+        if (cached != null) {
+            return cached.revoked();
+        }
+        try {
+            boolean revoked = redisTemplate.opsForZSet().score(REVOCATION_KEY, memberOf(jwt, claims)) != null;
+            confirmations.put(tokenId, new Confirmation(revoked, expiresAt));
+            return revoked;
+        } catch (Exception e) {
+            log.warn("確認 token 撤銷狀態失敗，按已撤銷處理: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * 撤銷 token：寫入 Redis 撤銷集合並廣播至所有節點
+     */
+    public void revoke(String jwt) {
+        Claims claims = jwtUtil.parseClaims(jwt);
+        if (claims == null) {
+            return;
+        }
+        revoke(tokenIdOf(jwt, claims), claims.getExpiration().getTime());
+    }
+
+    /**
+     * 以 token ID 及過期時間撤銷，用於撤銷手上沒有原文的關聯 token
+     */
+    public void revoke(String tokenId, long expiresAt) {
+        String member = tokenId + "|" + expiresAt;
+        markRevoked(tokenId, expiresAt);
+        redisTemplate.opsForZSet().add(REVOCATION_KEY, member, System.currentTimeMillis());
+        redisTemplate.convertAndSend(REVOCATION_CHANNEL, member);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        addMember(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        syncRevocations();
+    }
+
+    /**
+     * 增量同步撤銷記錄，並清理已過期的時間桶及 Redis 記錄
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval:30000}")
+    public void syncRevocations() {
+        long now = System.currentTimeMillis();
+        try {
+            // 回溯一個同步週期，避免時鐘偏差漏掉記錄
+            long since = Math.max(0, lastSyncedAt - 60000);
+            Set<ZSetOperations.TypedTuple<String>> revocations =
+                    redisTemplate.opsForZSet().rangeByScoreWithScores(REVOCATION_KEY, since, Double.POSITIVE_INFINITY);
+            if (revocations != null) {
+                revocations.forEach(tuple -> addMember(tuple.getValue()));
+            }
+            redisTemplate.opsForZSet().removeRangeByScore(REVOCATION_KEY, 0, now - maxTokenLifetime);
+            lastSyncedAt = now;
+        } catch (Exception e) {
+            log.warn("同步 token 撤銷記錄失敗: {}", e.getMessage());
+        }
+        bloomFilter.evictExpired(now);
+    }
+
+    private void addMember(String member) {
+        if (member == null) {
+            return;
+        }
+        int index = member.lastIndexOf('|');
+        if (index <= 0) {
+            log.warn("無法解析 token 撤銷記錄: {}", member);
+            return;
+        }
+        markRevoked(member.substring(0, index), Long.parseLong(member.substring(index + 1)));
+    }
+
+    private void markRevoked(String tokenId, long expiresAt) {
+        bloomFilter.add(tokenId, expiresAt);
+        confirmations.put(tokenId, new Confirmation(true, expiresAt));
+    }
+
+    /**
+     * Token ID 優先使用 jti，舊 token 沒有 jti 時以簽名段代替
+     */
+    private String tokenIdOf(String jwt, Claims claims) {
+        if (claims.getId() != null) {
+            return claims.getId();
+        }
+        int index = jwt.lastIndexOf('.');
+        return index >= 0 ? jwt.substring(index + 1) : jwt;
+    }
+
+    private String memberOf(String jwt, Claims claims) {
+        Date expiration = claims.getExpiration();
+        return tokenIdOf(jwt, claims) + "|" + expiration.getTime();
+    }
+
+    /**
+     * Redis 確認結果
+     */
+    private record Confirmation(boolean revoked, long expiresAt) {
+    }
+
+    /**
+     * 存活時間取配置上限與 token 剩餘有效期的較小值
+     */
+    private class ConfirmationExpiry implements Expiry<String, Confirmation> {
+
+        @Override
+        public long expireAfterCreate(String key, Confirmation value, long currentTime) {
+            long remaining = value.expiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(nearCacheTtl, remaining)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Confirmation value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Confirmation value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
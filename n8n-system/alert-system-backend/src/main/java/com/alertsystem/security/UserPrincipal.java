@@ -8,6 +8,9 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Data
 @Builder
@@ -19,9 +22,38 @@ public class UserPrincipal implements UserDetails {
     private String username;
     private String email;
     private String password;
+    private Set<Long> roleIds;
+    
+    /**
+     * 角色組合指紋，排序後的角色ID，權限判斷緩存以此為鍵在相同角色的用戶間共享；
+     * 一律由 roleIds 推導，與判斷時使用的角色一致
+     */
+    private String roleFingerprint;
     private Collection<? extends GrantedAuthority> authorities;
     private boolean enabled;
 
+    /**
+     * 計算角色組合指紋
+     */
+    public static String roleFingerprint(Collection<Long> roleIds) {
+        if (roleIds == null || roleIds.isEmpty()) {
+            return "";
+        }
+        return roleIds.stream()
+            .filter(Objects::nonNull)
+            .distinct()
+            .sorted()
+            .map(String::valueOf)
+            .collect(Collectors.joining(","));
+    }
+
+    public String getRoleFingerprint() {
+        if (roleFingerprint == null) {
+            roleFingerprint = roleFingerprint(roleIds);
+        }
+        return roleFingerprint;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
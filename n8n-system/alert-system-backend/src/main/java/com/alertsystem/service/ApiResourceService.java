@@ -1,25 +1,38 @@
 package com.alertsystem.service;
 
+import com.alertsystem.dto.common.CursorPageResponse;
+import com.alertsystem.dto.common.KeysetCursor;
 import com.alertsystem.dto.request.ApiResourceCreateRequest;
 import com.alertsystem.dto.request.ApiResourceUpdateRequest;
 import com.alertsystem.dto.request.RoleApiPermissionRequest;
+import com.alertsystem.dto.response.ApiModuleSummary;
 import com.alertsystem.dto.response.ApiResourceResponse;
 import com.alertsystem.entity.ApiResource;
-import com.alertsystem.entity.RoleApiPermission;
+import com.alertsystem.event.PermissionChangedEvent;
 import com.alertsystem.repository.ApiResourceRepository;
 import com.alertsystem.repository.RoleApiPermissionRepository;
+import com.alertsystem.repository.RoleAssignmentJdbcRepository;
 import com.alertsystem.repository.RoleRepository;
+import com.alertsystem.repository.TableStatisticsRepository;
+import com.alertsystem.search.SubstringSearchEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -30,7 +43,10 @@ public class ApiResourceService {
     private final ApiResourceRepository apiResourceRepository;
     private final RoleApiPermissionRepository roleApiPermissionRepository;
     private final RoleRepository roleRepository;
-    private final DynamicPermissionService permissionService;
+    private final RoleAssignmentJdbcRepository roleAssignmentRepository;
+    private final TableStatisticsRepository tableStatisticsRepository;
+    private final SubstringSearchEngine searchEngine;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * 分頁查詢API資源
@@ -41,12 +57,85 @@ public class ApiResourceService {
                                                     int page, 
                                                     int size) {
         Pageable pageable = PageRequest.of(page, size);
+        if (StringUtils.hasText(keyword)) {
+            return searchApiResources(moduleName, isEnabled, keyword.trim(), pageable);
+        }
         Page<ApiResource> apiResources = apiResourceRepository
-                .findApiResourcesWithConditions(moduleName, isEnabled, keyword, pageable);
+                .findApiResourcesWithConditions(moduleName, isEnabled, null, pageable);
         
         return apiResources.map(this::convertToResponse);
     }
     
+    /**
+     * 關鍵字查詢交由搜尋引擎按相似度排序、篩選並分頁，只載入當頁的API資源
+     */
+    private Page<ApiResourceResponse> searchApiResources(String moduleName,
+                                                         Boolean isEnabled,
+                                                         String keyword,
+                                                         Pageable pageable) {
+        Page<Long> rankedIds = searchEngine.searchApiResources(keyword, moduleName, isEnabled, pageable);
+        Map<Long, ApiResource> byId = apiResourceRepository.findAllById(rankedIds.getContent()).stream()
+                .collect(Collectors.toMap(ApiResource::getId, Function.identity()));
+        
+        List<ApiResourceResponse> content = rankedIds.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, rankedIds.getTotalElements());
+    }
+    
+    /**
+     * 游標分頁查詢API資源，按 (sortOrder, id) 定位下一頁，多取一筆判斷是否還有下一頁
+     */
+    public CursorPageResponse<ApiResourceResponse> scrollApiResources(String moduleName,
+                                                                     Boolean isEnabled,
+                                                                     String keyword,
+                                                                     String cursor,
+                                                                     int size,
+                                                                     CursorPageResponse.CountMode countMode) {
+        size = CursorPageResponse.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<ApiResource> rows = after == null
+                ? apiResourceRepository.findApiResourcesFirstPage(moduleName, isEnabled, keyword, limit)
+                : apiResourceRepository.findApiResourcesAfter(
+                        moduleName, isEnabled, keyword, after.sortOrder(), after.id(), limit);
+        
+        boolean hasNext = rows.size() > size;
+        List<ApiResource> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            ApiResource last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getSortOrder(), last.getId()).encode();
+        }
+        
+        return CursorPageResponse.of(
+                content.stream().map(this::convertToResponse).collect(Collectors.toList()),
+                size, nextCursor, countApiResources(moduleName, isEnabled, keyword, countMode));
+    }
+    
+    /**
+     * 無篩選條件時估算總數可直接讀取資料表統計信息，避免全表 COUNT
+     */
+    private CursorPageResponse.TotalCount countApiResources(String moduleName,
+                                                            Boolean isEnabled,
+                                                            String keyword,
+                                                            CursorPageResponse.CountMode countMode) {
+        if (countMode == null || countMode == CursorPageResponse.CountMode.NONE) {
+            return null;
+        }
+        boolean unfiltered = moduleName == null && isEnabled == null && keyword == null;
+        if (countMode == CursorPageResponse.CountMode.ESTIMATED && unfiltered) {
+            long estimate = tableStatisticsRepository.estimateRowCount("api_resources");
+            if (estimate >= 0) {
+                return new CursorPageResponse.TotalCount(estimate, true);
+            }
+        }
+        return new CursorPageResponse.TotalCount(
+                apiResourceRepository.countApiResourcesWithConditions(moduleName, isEnabled, keyword), false);
+    }
+    
     /**
      * 根據ID獲取API資源
      */
@@ -60,7 +149,6 @@ public class ApiResourceService {
      * 創建API資源
      */
     @Transactional
-    @CacheEvict(value = {"publicApis", "userPermissions", "userApiResources", "roleApiResources"}, allEntries = true)
     public ApiResourceResponse createApiResource(ApiResourceCreateRequest request, Long userId) {
         // 檢查路徑和方法是否已存在
         if (apiResourceRepository.findByApiPathAndHttpMethod(request.getApiPath(), request.getHttpMethod()).isPresent()) {
@@ -75,10 +163,11 @@ public class ApiResourceService {
         apiResource.setModuleName(request.getModuleName());
         apiResource.setIsEnabled(request.getIsEnabled());
         apiResource.setIsPublic(request.getIsPublic());
-        apiResource.setSortOrder(request.getSortOrder());
+        apiResource.setSortOrder(request.getSortOrder() != null ? request.getSortOrder() : 0);
         apiResource.setCreatedBy(userId);
         
         ApiResource saved = apiResourceRepository.save(apiResource);
+        eventPublisher.publishEvent(PermissionChangedEvent.apiResourceChanged(this));
         log.info("創建API資源: {}", saved.getApiName());
         
         return convertToResponse(saved);
@@ -88,7 +177,6 @@ public class ApiResourceService {
      * 更新API資源
      */
     @Transactional
-    @CacheEvict(value = {"publicApis", "userPermissions", "userApiResources", "roleApiResources"}, allEntries = true)
     public ApiResourceResponse updateApiResource(Long id, ApiResourceUpdateRequest request, Long userId) {
         ApiResource apiResource = apiResourceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("API資源不存在"));
@@ -108,10 +196,11 @@ public class ApiResourceService {
         apiResource.setModuleName(request.getModuleName());
         apiResource.setIsEnabled(request.getIsEnabled());
         apiResource.setIsPublic(request.getIsPublic());
-        apiResource.setSortOrder(request.getSortOrder());
+        apiResource.setSortOrder(request.getSortOrder() != null ? request.getSortOrder() : 0);
         apiResource.setUpdatedBy(userId);
         
         ApiResource saved = apiResourceRepository.save(apiResource);
+        eventPublisher.publishEvent(PermissionChangedEvent.apiResourceChanged(this));
         log.info("更新API資源: {}", saved.getApiName());
         
         return convertToResponse(saved);
@@ -121,7 +210,6 @@ public class ApiResourceService {
      * 刪除API資源
      */
     @Transactional
-    @CacheEvict(value = {"publicApis", "userPermissions", "userApiResources", "roleApiResources"}, allEntries = true)
     public void deleteApiResource(Long id) {
         ApiResource apiResource = apiResourceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("API資源不存在"));
@@ -131,6 +219,7 @@ public class ApiResourceService {
         
         // 刪除API資源
         apiResourceRepository.deleteById(id);
+        eventPublisher.publishEvent(PermissionChangedEvent.apiResourceChanged(this));
         
         log.info("刪除API資源: {}", apiResource.getApiName());
     }
@@ -155,66 +244,63 @@ public class ApiResourceService {
      * 為角色分配API權限
      */
     @Transactional
-    @CacheEvict(value = {"userPermissions", "userApiResources", "roleApiResources", "roleApiPermissions"}, allEntries = true)
     public void assignApiPermissionsToRole(Long roleId, RoleApiPermissionRequest request, Long userId) {
         // 檢查角色是否存在
         if (!roleRepository.existsById(roleId)) {
             throw new RuntimeException("角色不存在");
         }
         
-        // 刪除角色現有的API權限
-        roleApiPermissionRepository.deleteByRoleId(roleId);
-        
-        // 添加新的API權限
-        if (request.getApiResourceIds() != null && !request.getApiResourceIds().isEmpty()) {
-            List<RoleApiPermission> permissions = request.getApiResourceIds().stream()
-                    .map(apiResourceId -> {
-                        RoleApiPermission permission = new RoleApiPermission();
-                        permission.setRoleId(roleId);
-                        permission.setApiResourceId(apiResourceId);
-                        permission.setCreatedBy(userId);
-                        return permission;
-                    })
-                    .collect(Collectors.toList());
-            
-            roleApiPermissionRepository.saveAll(permissions);
+        // 與現有權限做差集，只寫入變化部分
+        Set<Long> targetIds = request.getApiResourceIds() != null
+                ? new HashSet<>(request.getApiResourceIds())
+                : new HashSet<>();
+        targetIds.remove(null);
+        Set<Long> currentIds = new HashSet<>(roleApiPermissionRepository.findApiResourceIdsByRoleId(roleId));
+        
+        Set<Long> toAdd = new HashSet<>(targetIds);
+        toAdd.removeAll(currentIds);
+        Set<Long> toRemove = new HashSet<>(currentIds);
+        toRemove.removeAll(targetIds);
+        
+        if (!toAdd.isEmpty()) {
+            Set<Long> missingIds = new HashSet<>(toAdd);
+            missingIds.removeAll(apiResourceRepository.findExistingIds(toAdd));
+            if (!missingIds.isEmpty()) {
+                throw new RuntimeException("API資源不存在: " + missingIds.iterator().next());
+            }
         }
         
-        // 清除相關緩存
-        permissionService.clearRolePermissionCache(roleId);
+        int removed = roleAssignmentRepository.deleteRoleApiPermissions(roleId, toRemove);
+        int added = roleAssignmentRepository.insertRoleApiPermissions(roleId, toAdd, userId);
         
-        log.info("為角色 {} 分配API權限，共 {} 個", roleId, 
-                request.getApiResourceIds() != null ? request.getApiResourceIds().size() : 0);
+        // 事務提交後重建權限
+        if (removed > 0 || added > 0) {
+            eventPublisher.publishEvent(PermissionChangedEvent.roleApiChanged(this, roleId));
+        }
+        
+        log.info("為角色 {} 分配API權限，共 {} 個，新增 {} 個，移除 {} 個", roleId, targetIds.size(), added, removed);
     }
     
     /**
-     * 獲取所有模組名稱
+     * 獲取所有模組名稱，API資源寫入提交後由 PermissionSyncService 清除
      */
+    @Cacheable(value = "apiModules", key = "'names'")
     public List<String> getModuleNames() {
-        return apiResourceRepository.findAll().stream()
-                .map(ApiResource::getModuleName)
-                .filter(moduleName -> moduleName != null && !moduleName.trim().isEmpty())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return apiResourceRepository.findDistinctModuleNames();
+    }
+    
+    /**
+     * 獲取模組目錄，包含每個模組的API數量
+     */
+    @Cacheable(value = "apiModules", key = "'catalog'")
+    public List<ApiModuleSummary> getModuleCatalog() {
+        return apiResourceRepository.summarizeModules();
     }
     
     /**
      * 轉換為響應DTO
      */
     private ApiResourceResponse convertToResponse(ApiResource apiResource) {
-        return ApiResourceResponse.builder()
-                .id(apiResource.getId())
-                .apiName(apiResource.getApiName())
-                .apiPath(apiResource.getApiPath())
-                .httpMethod(apiResource.getHttpMethod())
-                .apiDescription(apiResource.getApiDescription())
-                .moduleName(apiResource.getModuleName())
-                .isEnabled(apiResource.getIsEnabled())
-                .isPublic(apiResource.getIsPublic())
-                .sortOrder(apiResource.getSortOrder())
-                .createdAt(apiResource.getCreatedAt())
-                .updatedAt(apiResource.getUpdatedAt())
-                .build();
+        return ApiResourceResponse.from(apiResource);
     }
 }
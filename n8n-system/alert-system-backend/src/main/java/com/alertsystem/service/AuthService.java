@@ -13,7 +13,7 @@ public interface AuthService {
     
     User updateProfile(UpdateProfileRequest request);
     
-    void logout(String token);
+    void logout(String token, String refreshToken);
     
     LoginResponse refreshToken(String refreshToken);
 }
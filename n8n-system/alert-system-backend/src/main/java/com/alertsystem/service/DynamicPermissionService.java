@@ -1,133 +1,325 @@
 package com.alertsystem.service;
 
+import com.alertsystem.dto.response.ApiResourceResponse;
 import com.alertsystem.entity.ApiResource;
+import com.alertsystem.entity.RoleApiPermission;
 import com.alertsystem.repository.ApiResourceRepository;
+import com.alertsystem.repository.RoleApiPermissionRepository;
+import com.alertsystem.security.HandlerEndpointRegistry;
+import com.alertsystem.security.HandlerEndpointRegistry.Endpoint;
+import com.alertsystem.security.PermissionTrie;
+import com.alertsystem.security.RequestAuthorization;
+import com.alertsystem.security.RequestAuthorization.Outcome;
 import com.alertsystem.security.UserPrincipal;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.AntPathMatcher;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class DynamicPermissionService {
     
     private final ApiResourceRepository apiResourceRepository;
+    private final RoleApiPermissionRepository roleApiPermissionRepository;
+    private final HandlerEndpointRegistry endpointRegistry;
+    private final long decisionCacheSize;
+    
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
     
+    private volatile PermissionTrie permissionTrie;
+    private volatile EndpointPermissions endpointPermissions;
+    private List<ApiResource> enabledApiResources = List.of();
+    private Map<Long, Set<Long>> apiIdsByRole = Map.of();
+    
+    public DynamicPermissionService(ApiResourceRepository apiResourceRepository,
+                                    RoleApiPermissionRepository roleApiPermissionRepository,
+                                    HandlerEndpointRegistry endpointRegistry,
+                                    @Value("${permission.decision-cache.max-size:10000}") long decisionCacheSize) {
+        this.apiResourceRepository = apiResourceRepository;
+        this.roleApiPermissionRepository = roleApiPermissionRepository;
+        this.endpointRegistry = endpointRegistry;
+        this.decisionCacheSize = decisionCacheSize;
+        this.endpointPermissions = new EndpointPermissions(Map.of(), newDecisionCache());
+    }
+    
     /**
-     * 檢查當前用戶是否有權限訪問指定的API
+     * 計算請求的授權判斷，每個請求只解析一次處理器路徑模式，公開標記與角色判斷共用同一個端點綁定
+     * 匹配到處理器時判斷結果以「角色組合指紋 + 端點」為鍵緩存，相同角色組合的用戶共享同一條記錄，
+     * 緩存大小只隨角色組合數與端點數增長；未匹配處理器的請求不緩存，直接以原始路徑匹配
      */
-    public boolean hasPermission(HttpServletRequest request) {
-        String requestPath = request.getRequestURI();
+    public RequestAuthorization authorize(HttpServletRequest request, String requestPath, Authentication authentication) {
         String method = request.getMethod();
-        
-        // 移除 context path（如果存在）
-        String contextPath = request.getContextPath();
-        if (contextPath != null && !contextPath.isEmpty() && requestPath.startsWith(contextPath)) {
-            requestPath = requestPath.substring(contextPath.length());
-        }
-        
-        log.debug("檢查權限: {} {}", method, requestPath);
+        String pattern = endpointRegistry.resolvePattern(request);
+        getPermissionTrie();
+        EndpointPermissions permissions = endpointPermissions;
+        String bindingKey = pattern != null ? HandlerEndpointRegistry.bindingKey(method, pattern) : null;
+        EndpointBinding binding = bindingKey != null ? permissions.binding(bindingKey) : null;
+        UserPrincipal principal = principalOf(authentication);
         
         // 1. 檢查是否為公開API
-        if (isPublicApi(requestPath, method)) {
+        boolean isPublic = binding != null ? binding.isPublic() : isPublicApi(requestPath, method);
+        if (isPublic) {
             log.debug("公開API，允許訪問: {} {}", method, requestPath);
-            return true;
+            return new RequestAuthorization(method, requestPath, pattern, Outcome.PUBLIC, principal);
         }
         
-        // 2. 獲取當前用戶
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
+        // 2. 檢查用戶是否已認證
+        if (principal == null) {
             log.debug("用戶未認證，拒絕訪問: {} {}", method, requestPath);
-            return false;
+            return new RequestAuthorization(method, requestPath, pattern, Outcome.UNAUTHENTICATED, null);
         }
         
-        Object principal = authentication.getPrincipal();
-        if (!(principal instanceof UserPrincipal)) {
-            log.debug("無效的用戶主體，拒絕訪問: {} {}", method, requestPath);
-            return false;
-        }
-        
-        UserPrincipal userDetails = (UserPrincipal) principal;
-        Long userId = userDetails.getId();
-        
         // 3. 檢查用戶權限
-        boolean hasPermission = checkUserPermission(userId, requestPath, method);
+        boolean permitted = binding != null
+                ? permissions.decisions().get(principal.getRoleFingerprint() + "|" + bindingKey,
+                        key -> binding.permits(principal.getRoleIds()))
+                : checkUserPermission(principal.getRoleIds(), requestPath, method);
         
-        if (hasPermission) {
-            log.debug("用戶 {} 有權限訪問: {} {}", userId, method, requestPath);
+        if (permitted) {
+            log.debug("用戶 {} 有權限訪問: {} {}", principal.getId(), method, requestPath);
         } else {
-            log.warn("用戶 {} 無權限訪問: {} {}", userId, method, requestPath);
+            log.warn("用戶 {} 無權限訪問: {} {}", principal.getId(), method, requestPath);
         }
-        
-        return hasPermission;
+        return new RequestAuthorization(method, requestPath, pattern,
+                permitted ? Outcome.PERMITTED : Outcome.DENIED, principal);
+    }
+    
+    private UserPrincipal principalOf(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getPrincipal() instanceof UserPrincipal userPrincipal ? userPrincipal : null;
     }
     
     /**
      * 檢查是否為公開API
      */
-    @Cacheable(value = "publicApis", key = "#requestPath + '_' + #method")
     public boolean isPublicApi(String requestPath, String method) {
-        List<ApiResource> publicApis = apiResourceRepository.findByIsPublicTrueAndIsEnabledTrue();
+        return getPermissionTrie().isPublic(requestPath, method);
+    }
+    
+    /**
+     * 檢查角色集合權限
+     */
+    public boolean checkUserPermission(Collection<Long> roleIds, String requestPath, String method) {
+        PermissionTrie trie = getPermissionTrie();
+        return trie.isPermitted(trie.roleMask(roleIds), requestPath, method);
+    }
+    
+    /**
+     * 獲取當前權限前綴樹，首次訪問時構建
+     */
+    public PermissionTrie getPermissionTrie() {
+        PermissionTrie trie = permissionTrie;
+        if (trie == null) {
+            synchronized (this) {
+                trie = permissionTrie;
+                if (trie == null) {
+                    reloadPermissions();
+                    trie = permissionTrie;
+                }
+            }
+        }
+        return trie;
+    }
+    
+    /**
+     * 從資料庫重新載入所有API資源及角色權限，並重建權限前綴樹
+     */
+    public synchronized void reloadPermissions() {
+        List<ApiResource> apiResources = apiResourceRepository.findByIsEnabledTrueOrderBySortOrder();
+        Map<Long, Set<Long>> apiIdsByRole = roleApiPermissionRepository.findAll().stream()
+                .collect(Collectors.groupingBy(RoleApiPermission::getRoleId,
+                        Collectors.mapping(RoleApiPermission::getApiResourceId, Collectors.toSet())));
+        
+        this.enabledApiResources = List.copyOf(apiResources);
+        this.apiIdsByRole = apiIdsByRole;
+        this.endpointPermissions = new EndpointPermissions(bindEndpoints(enabledApiResources, apiIdsByRole), newDecisionCache());
+        this.permissionTrie = compile(enabledApiResources, apiIdsByRole);
+    }
+    
+    /**
+     * 只重新載入指定角色的API權限，其餘角色沿用記憶體中的資料後重建權限前綴樹
+     */
+    public synchronized void reloadRolePermissions(Long roleId) {
+        if (permissionTrie == null) {
+            reloadPermissions();
+            return;
+        }
+        Map<Long, Set<Long>> updated = new HashMap<>(apiIdsByRole);
+        Set<Long> apiIds = Set.copyOf(roleApiPermissionRepository.findApiResourceIdsByRoleId(roleId));
+        if (apiIds.isEmpty()) {
+            updated.remove(roleId);
+        } else {
+            updated.put(roleId, apiIds);
+        }
         
-        return publicApis.stream()
-                .anyMatch(api -> method.equalsIgnoreCase(api.getHttpMethod()) && 
-                               matchPath(api.getApiPath(), requestPath));
+        this.apiIdsByRole = updated;
+        this.endpointPermissions = new EndpointPermissions(bindEndpoints(enabledApiResources, updated), newDecisionCache());
+        this.permissionTrie = compile(enabledApiResources, updated);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reloadPermissions();
+        reportUnboundEndpoints();
     }
     
     /**
-     * 檢查用戶權限
+     * 為每個控制器端點預先計算匹配的API資源及授權角色
      */
-    @Cacheable(value = "userPermissions", key = "#userId + '_' + #requestPath + '_' + #method")
-    public boolean checkUserPermission(Long userId, String requestPath, String method) {
-        List<ApiResource> userApis = apiResourceRepository.findApiResourcesByUserId(userId);
+    private Map<String, EndpointBinding> bindEndpoints(List<ApiResource> apiResources, Map<Long, Set<Long>> apiIdsByRole) {
+        Map<Long, Set<Long>> rolesByApi = new HashMap<>();
+        apiIdsByRole.forEach((roleId, apiIds) -> apiIds.forEach(apiId ->
+                rolesByApi.computeIfAbsent(apiId, key -> new TreeSet<>()).add(roleId)));
         
-        return userApis.stream()
-                .anyMatch(api -> method.equalsIgnoreCase(api.getHttpMethod()) && 
-                               matchPath(api.getApiPath(), requestPath));
+        Map<String, EndpointBinding> bindings = new HashMap<>();
+        for (Endpoint endpoint : endpointRegistry.getEndpoints()) {
+            List<Long> apiIds = new ArrayList<>();
+            Set<Long> roleIds = new TreeSet<>();
+            boolean isPublic = false;
+            for (ApiResource api : apiResources) {
+                if (api.getApiPath() == null || !endpoint.method().equalsIgnoreCase(api.getHttpMethod())
+                        || !pathMatcher.match(api.getApiPath(), endpoint.pattern())) {
+                    continue;
+                }
+                apiIds.add(api.getId());
+                isPublic |= Boolean.TRUE.equals(api.getIsPublic());
+                roleIds.addAll(rolesByApi.getOrDefault(api.getId(), Set.of()));
+            }
+            bindings.merge(endpoint.key(), new EndpointBinding(List.copyOf(apiIds), isPublic, Set.copyOf(roleIds)),
+                    EndpointBinding::union);
+        }
+        return Map.copyOf(bindings);
     }
     
     /**
-     * 路徑匹配（支持通配符）
+     * 啟動時報告沒有對應 api_resources 記錄的控制器端點，這些端點除公開路徑外一律拒絕訪問
      */
-    private boolean matchPath(String pattern, String path) {
-        // 處理通配符路徑，例如 /api/users/* 匹配 /api/users/123
-        if (pattern.contains("*")) {
-            return pathMatcher.match(pattern, path);
+    private void reportUnboundEndpoints() {
+        List<String> unbound = endpointRegistry.getEndpoints().stream()
+                .filter(Endpoint::application)
+                .filter(endpoint -> endpointPermissions.binding(endpoint.key()).apiResourceIds().isEmpty())
+                .map(endpoint -> endpoint.key() + " (" + endpoint.handler() + ")")
+                .sorted()
+                .toList();
+        if (unbound.isEmpty()) {
+            log.info("所有控制器端點均已綁定API資源");
+            return;
+        }
+        log.warn("以下 {} 個控制器端點沒有對應的API資源記錄:\n  {}", unbound.size(), String.join("\n  ", unbound));
+    }
+    
+    /**
+     * 編譯權限前綴樹
+     */
+    private PermissionTrie compile(List<ApiResource> apiResources, Map<Long, Set<Long>> apiIdsByRole) {
+        Map<Long, List<Long>> rolesByApi = new HashMap<>();
+        apiIdsByRole.forEach((roleId, apiIds) -> apiIds.forEach(apiId ->
+                rolesByApi.computeIfAbsent(apiId, key -> new ArrayList<>()).add(roleId)));
+        
+        PermissionTrie.Builder builder = PermissionTrie.builder();
+        for (ApiResource api : apiResources) {
+            builder.add(api.getApiPath(), api.getHttpMethod(),
+                    Boolean.TRUE.equals(api.getIsPublic()),
+                    rolesByApi.getOrDefault(api.getId(), List.of()));
+        }
+        PermissionTrie trie = builder.build();
+        log.info("權限前綴樹構建完成，API資源 {} 個，角色 {} 個", trie.getResourceCount(), trie.getRoleCount());
+        return trie;
+    }
+    
+    private Cache<String, Boolean> newDecisionCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(decisionCacheSize)
+                .build();
+    }
+    
+    /**
+     * 端點權限綁定與對應的判斷緩存，權限重建時整體替換，舊的判斷結果隨之失效
+     */
+    private record EndpointPermissions(Map<String, EndpointBinding> bindings, Cache<String, Boolean> decisions) {
+        
+        private EndpointBinding binding(String bindingKey) {
+            return bindings.getOrDefault(bindingKey, EndpointBinding.UNBOUND);
+        }
+    }
+    
+    /**
+     * 端點權限綁定
+     *
+     * @param apiResourceIds 匹配該端點的API資源ID
+     * @param isPublic       任一匹配的API資源為公開
+     * @param roleIds        被授權訪問該端點的角色ID
+     */
+    private record EndpointBinding(List<Long> apiResourceIds, boolean isPublic, Set<Long> roleIds) {
+        
+        private static final EndpointBinding UNBOUND = new EndpointBinding(List.of(), false, Set.of());
+        
+        private boolean permits(Collection<Long> userRoleIds) {
+            if (userRoleIds == null || roleIds.isEmpty()) {
+                return false;
+            }
+            for (Long roleId : userRoleIds) {
+                if (roleIds.contains(roleId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private EndpointBinding union(EndpointBinding other) {
+            List<Long> apiIds = new ArrayList<>(apiResourceIds);
+            apiIds.addAll(other.apiResourceIds);
+            Set<Long> roles = new TreeSet<>(roleIds);
+            roles.addAll(other.roleIds);
+            return new EndpointBinding(List.copyOf(apiIds), isPublic || other.isPublic, Set.copyOf(roles));
         }
-        // 精確匹配
-        return pattern.equals(path);
     }
     
     /**
-     * 獲取用戶的所有API權限
+     * 獲取用戶的所有API權限，緩存 DTO 而非受管實體
      */
     @Cacheable(value = "userApiResources", key = "#userId")
-    public List<ApiResource> getUserApiResources(Long userId) {
-        return apiResourceRepository.findApiResourcesByUserId(userId);
+    public List<ApiResourceResponse> getUserApiResources(Long userId) {
+        return apiResourceRepository.findApiResourcesByUserId(userId).stream()
+            .map(ApiResourceResponse::from)
+            .collect(Collectors.toList());
     }
     
     /**
-     * 獲取角色的所有API權限
+     * 獲取角色的所有API權限，緩存 DTO 而非受管實體
      */
     @Cacheable(value = "roleApiResources", key = "#roleId")
-    public List<ApiResource> getRoleApiResources(Long roleId) {
-        return apiResourceRepository.findApiResourcesByRoleId(roleId);
+    public List<ApiResourceResponse> getRoleApiResources(Long roleId) {
+        return apiResourceRepository.findApiResourcesByRoleId(roleId).stream()
+            .map(ApiResourceResponse::from)
+            .collect(Collectors.toList());
     }
     
     /**
      * 清除用戶權限緩存
      */
+    @CacheEvict(value = "userApiResources", key = "#userId")
     public void clearUserPermissionCache(Long userId) {
-        // 實現緩存清除邏輯
         log.info("清除用戶 {} 的權限緩存", userId);
     }
     
@@ -135,7 +327,7 @@ public class DynamicPermissionService {
      * 清除角色權限緩存
      */
     public void clearRolePermissionCache(Long roleId) {
-        // 實現緩存清除邏輯
         log.info("清除角色 {} 的權限緩存", roleId);
+        reloadRolePermissions(roleId);
     }
 }
@@ -0,0 +1,88 @@
+package com.alertsystem.service;
+
+import com.alertsystem.entity.ApiResource;
+import com.alertsystem.entity.Menu;
+import com.alertsystem.entity.Role;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Hibernate 二級緩存區域清除
+ * 二級緩存為節點本地緩存，且角色關聯以 JDBC 直接寫入時 Hibernate 無法感知，
+ * 因此由 {@link PermissionSyncService} 在每個節點套用權限變更時按變更類型清除相應區域。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EntityCacheService {
+
+    public static final String API_RESOURCE_QUERY_REGION = "query.apiResources";
+    public static final String MENU_QUERY_REGION = "query.menus";
+
+    private static final String ROLE_MENUS_ROLE = Role.class.getName() + ".menus";
+    private static final String MENU_ROLES_ROLE = Menu.class.getName() + ".roles";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * API資源變更：清除API資源實體及相關查詢
+     */
+    public void evictApiResources() {
+        Cache cache = cache();
+        cache.evictEntityData(ApiResource.class);
+        cache.evictQueryRegion(API_RESOURCE_QUERY_REGION);
+        log.debug("清除API資源二級緩存");
+    }
+
+    /**
+     * 角色API權限變更：權限關聯不是實體，只需清除按角色查詢的結果
+     */
+    public void evictRoleApiPermissions() {
+        cache().evictQueryRegion(API_RESOURCE_QUERY_REGION);
+    }
+
+    /**
+     * 角色選單變更：清除角色的選單集合及選單的角色集合
+     */
+    public void evictRoleMenus(Long roleId) {
+        Cache cache = cache();
+        if (roleId != null) {
+            cache.evictCollectionData(ROLE_MENUS_ROLE, roleId);
+        } else {
+            cache.evictCollectionData(ROLE_MENUS_ROLE);
+        }
+        cache.evictCollectionData(MENU_ROLES_ROLE);
+        cache.evictQueryRegion(MENU_QUERY_REGION);
+        log.debug("清除角色 {} 的選單二級緩存", roleId);
+    }
+
+    /**
+     * 選單變更：清除選單實體、選單相關集合及查詢
+     */
+    public void evictMenus() {
+        Cache cache = cache();
+        cache.evictEntityData(Menu.class);
+        cache.evictCollectionData(ROLE_MENUS_ROLE);
+        cache.evictCollectionData(MENU_ROLES_ROLE);
+        cache.evictQueryRegion(MENU_QUERY_REGION);
+        log.debug("清除選單二級緩存");
+    }
+
+    /**
+     * 無法確定變更範圍時清除所有參考資料區域
+     */
+    public void evictAll() {
+        Cache cache = cache();
+        cache.evictEntityData(Role.class);
+        evictApiResources();
+        evictMenus();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -0,0 +1,190 @@
+package com.alertsystem.service;
+
+import com.alertsystem.entity.LoginLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登入日誌非同步批量寫入器
+ * 登入流程只將日誌放入有界佇列，由背景執行緒以 JDBC 批量插入寫入資料庫，
+ * 佇列滿時按配置丟棄或限時阻塞，關閉時會寫完佇列中剩餘的日誌。
+ * 未知用戶ID時（如節流攔截）記錄嘗試的用戶名，由批量插入在資料庫中解析用戶ID。
+ */
+@Slf4j
+@Service
+public class LoginAuditWriter {
+
+    /**
+     * 用戶ID未知時以用戶名子查詢解析；保持 VALUES 形式，未指定類型的 ip_address 參數才能按目標欄位推斷類型
+     */
+    private static final String INSERT_SQL = """
+            INSERT INTO login_logs (user_id, login_time, ip_address, user_agent, status)
+            VALUES (COALESCE(?, (SELECT id FROM users WHERE username = ?)), ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<LoginAuditEntry> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+
+    private final Counter enqueuedCounter;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public LoginAuditWriter(JdbcTemplate jdbcTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${login-audit.queue-capacity:10000}") int queueCapacity,
+                            @Value("${login-audit.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                            @Value("${login-audit.block-timeout:1000}") long blockTimeoutMillis,
+                            @Value("${login-audit.batch-size:500}") int batchSize,
+                            @Value("${login-audit.flush-interval:1000}") long flushIntervalMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+
+        Gauge.builder("login.audit.queue.size", queue, BlockingQueue::size)
+                .description("待寫入的登入日誌數量")
+                .register(meterRegistry);
+        Gauge.builder("login.audit.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .description("登入日誌佇列剩餘容量")
+                .register(meterRegistry);
+        this.enqueuedCounter = meterRegistry.counter("login.audit.enqueued");
+        this.droppedCounter = meterRegistry.counter("login.audit.dropped");
+        this.writtenCounter = meterRegistry.counter("login.audit.written");
+        this.failedCounter = meterRegistry.counter("login.audit.failed");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "login-audit-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * 關閉時停止接收並寫完剩餘日誌
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(flushIntervalMillis * 5);
+        flushRemaining();
+    }
+
+    /**
+     * 記錄登入日誌，不在調用執行緒上寫入資料庫；userId 為 null 時以 username 解析
+     */
+    public void record(Long userId, String username, String ipAddress, String userAgent, LoginLog.LoginStatus status) {
+        LoginAuditEntry entry = new LoginAuditEntry(userId, username, LocalDateTime.now(), ipAddress, userAgent, status);
+        boolean accepted;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                accepted = queue.offer(entry, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(entry);
+        }
+
+        if (accepted) {
+            enqueuedCounter.increment();
+        } else {
+            droppedCounter.increment();
+            log.warn("登入日誌佇列已滿，丟棄日誌: userId={}, username={}, ip={}, status={}",
+                    userId, username, ipAddress, status);
+        }
+    }
+
+    private void drainLoop() {
+        List<LoginAuditEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                LoginAuditEntry first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private synchronized void flushRemaining() {
+        List<LoginAuditEntry> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<LoginAuditEntry> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, entry) -> {
+                if (entry.userId() != null) {
+                    ps.setLong(1, entry.userId());
+                } else {
+                    ps.setNull(1, Types.BIGINT);
+                }
+                ps.setString(2, entry.username());
+                ps.setTimestamp(3, Timestamp.valueOf(entry.loginTime()));
+                // 以未指定類型綁定，兼容 INET 及 VARCHAR 欄位
+                ps.setObject(4, entry.ipAddress(), Types.OTHER);
+                ps.setString(5, entry.userAgent());
+                ps.setString(6, entry.status().name());
+            });
+            writtenCounter.increment(batch.size());
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("批量寫入登入日誌失敗，共 {} 筆: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 佇列滿時的處理策略
+     */
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
+    private record LoginAuditEntry(Long userId,
+                                   String username,
+                                   LocalDateTime loginTime,
+                                   String ipAddress,
+                                   String userAgent,
+                                   LoginLog.LoginStatus status) {
+    }
+}
@@ -0,0 +1,132 @@
+package com.alertsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 登入節流服務
+ * 以 Redis 有序集合實現按IP及按用戶名的滑動窗口失敗計數，
+ * 檢查與記錄各為一次 Lua 腳本調用，不查詢資料庫。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginThrottleService {
+
+    private static final String IP_KEY_PREFIX = "login:fail:ip:";
+    private static final String USER_KEY_PREFIX = "login:fail:user:";
+
+    /**
+     * 清理窗口外的記錄後比較失敗次數，返回 0 放行、1 IP 被封鎖、2 用戶名被封鎖
+     */
+    private static final RedisScript<Long> CHECK_SCRIPT = new DefaultRedisScript<>("""
+            local windowStart = tonumber(ARGV[1]) - tonumber(ARGV[2])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, windowStart)
+            if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[3]) then
+                return 1
+            end
+            redis.call('ZREMRANGEBYSCORE', KEYS[2], 0, windowStart)
+            if redis.call('ZCARD', KEYS[2]) >= tonumber(ARGV[4]) then
+                return 2
+            end
+            return 0
+            """, Long.class);
+
+    /**
+     * 記錄一次失敗，並將鍵的存活時間設為窗口長度
+     */
+    private static final RedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>("""
+            for i = 1, #KEYS do
+                redis.call('ZADD', KEYS[i], ARGV[1], ARGV[3])
+                redis.call('PEXPIRE', KEYS[i], ARGV[2])
+            end
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${login-throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${login-throttle.window:900000}")
+    private long windowMillis;
+
+    @Value("${login-throttle.ip-max-failures:20}")
+    private int ipMaxFailures;
+
+    @Value("${login-throttle.username-max-failures:5}")
+    private int usernameMaxFailures;
+
+    /**
+     * 檢查IP或用戶名是否在窗口內失敗次數過多
+     */
+    public boolean isBlocked(String ipAddress, String username) {
+        if (!enabled) {
+            return false;
+        }
+        try {
+            Long result = redisTemplate.execute(CHECK_SCRIPT, keys(ipAddress, username),
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(windowMillis),
+                    String.valueOf(ipMaxFailures),
+                    String.valueOf(usernameMaxFailures));
+            if (result != null && result != 0L) {
+                log.warn("登入節流生效: ip={}, username={}, 原因={}", ipAddress, username,
+                        result == 1L ? "IP失敗次數過多" : "用戶名失敗次數過多");
+                return true;
+            }
+            return false;
+        } catch (Exception e) {
+            log.warn("登入節流檢查失敗，暫不限制: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 記錄一次登入失敗
+     */
+    public void recordFailure(String ipAddress, String username) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.execute(RECORD_SCRIPT, keys(ipAddress, username),
+                    String.valueOf(now),
+                    String.valueOf(windowMillis),
+                    now + ":" + UUID.randomUUID());
+        } catch (Exception e) {
+            log.warn("記錄登入失敗次數失敗: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 登入成功後清除該用戶名的失敗記錄
+     */
+    public void reset(String username) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            redisTemplate.delete(USER_KEY_PREFIX + normalize(username));
+        } catch (Exception e) {
+            log.warn("清除登入失敗記錄失敗: {}", e.getMessage());
+        }
+    }
+
+    private List<String> keys(String ipAddress, String username) {
+        return List.of(IP_KEY_PREFIX + normalize(ipAddress), USER_KEY_PREFIX + normalize(username));
+    }
+
+    private String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+}
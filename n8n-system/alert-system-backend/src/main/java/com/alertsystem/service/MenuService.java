@@ -1,10 +1,12 @@
 package com.alertsystem.service;
 
+import com.alertsystem.dto.common.CursorPageResponse;
 import com.alertsystem.dto.menu.*;
 import com.alertsystem.entity.Menu;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface MenuService {
@@ -39,11 +41,26 @@ public interface MenuService {
      */
     Page<MenuDTO> getMenuList(Pageable pageable);
     
+    /**
+     * 游標分頁查詢選單列表，按 (sortOrder, id) 排序
+     */
+    CursorPageResponse<MenuDTO> scrollMenuList(String cursor, int size, CursorPageResponse.CountMode countMode);
+    
+    /**
+     * 按名稱子字串搜尋選單，結果按相似度排序
+     */
+    List<MenuDTO> searchMenus(String name);
+    
     /**
      * 根據用戶ID查詢用戶選單樹
      */
     List<UserMenuTree> getUserMenuTree(Long userId);
     
+    /**
+     * 根據角色ID集合查詢用戶選單樹快照（含ETag）
+     */
+    UserMenuTreeSnapshot getUserMenuTreeSnapshot(Collection<Long> roleIds);
+    
     /**
      * 根據用戶ID查詢用戶權限列表
      */
@@ -64,6 +81,11 @@ public interface MenuService {
      */
     List<MenuDTO> getChildMenus(Long parentId);
     
+    /**
+     * 查詢選單子樹（含自身）
+     */
+    List<MenuDTO> getMenuSubtree(Long id);
+    
     /**
      * 根據選單類型查詢選單
      */
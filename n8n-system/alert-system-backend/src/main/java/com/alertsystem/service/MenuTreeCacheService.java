@@ -0,0 +1,224 @@
+package com.alertsystem.service;
+
+import com.alertsystem.dto.menu.UserMenuTree;
+import com.alertsystem.dto.menu.UserMenuTreeSnapshot;
+import com.alertsystem.entity.Menu;
+import com.alertsystem.repository.MenuRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 用戶選單樹緩存服務
+ * 每個角色預先計算一份不可變的選單節點列表，用戶選單樹由其角色的列表合併而成，
+ * 合併結果按角色組合緩存並附帶內容雜湊 ETag。
+ * 角色選單分配或選單增刪改提交後，由 {@link PermissionSyncService} 在各節點清除。
+ */
+@Slf4j
+@Service
+public class MenuTreeCacheService {
+
+    private static final Comparator<MenuNode> TREE_ORDER = Comparator
+            .comparingLong(MenuNode::parentId)
+            .thenComparingInt(MenuNode::sortOrder);
+
+    private final MenuRepository menuRepository;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentMap<Long, List<MenuNode>> roleMenus = new ConcurrentHashMap<>();
+    private final Cache<String, UserMenuTreeSnapshot> mergedTrees;
+
+    /**
+     * 緩存版本，失效時遞增，避免失效前開始的載入把舊資料寫回緩存
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    public MenuTreeCacheService(MenuRepository menuRepository,
+                                ObjectMapper objectMapper,
+                                @Value("${menu-tree.merged-cache-size:1000}") int mergedCacheSize) {
+        this.menuRepository = menuRepository;
+        this.objectMapper = objectMapper;
+        this.mergedTrees = Caffeine.newBuilder()
+                .maximumSize(mergedCacheSize)
+                .build();
+    }
+
+    /**
+     * 取得角色組合對應的用戶選單樹
+     */
+    public UserMenuTreeSnapshot getUserMenuTree(Collection<Long> roleIds) {
+        TreeSet<Long> sortedRoleIds = roleIds != null ? new TreeSet<>(roleIds) : new TreeSet<>();
+        String key = sortedRoleIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        UserMenuTreeSnapshot snapshot = mergedTrees.getIfPresent(key);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        long expected = version.get();
+        Map<Long, MenuNode> merged = new HashMap<>();
+        for (Long roleId : sortedRoleIds) {
+            for (MenuNode node : getRoleMenus(roleId)) {
+                merged.putIfAbsent(node.id(), node);
+            }
+        }
+        List<UserMenuTree> menus = buildTree(merged.values());
+        snapshot = new UserMenuTreeSnapshot(menus, computeEtag(menus));
+        if (version.get() == expected) {
+            mergedTrees.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 角色選單變更時清除該角色及所有合併結果
+     */
+    public void evictRole(Long roleId) {
+        version.incrementAndGet();
+        if (roleId != null) {
+            roleMenus.remove(roleId);
+        } else {
+            roleMenus.clear();
+        }
+        mergedTrees.invalidateAll();
+        log.debug("清除角色 {} 的選單樹緩存", roleId);
+    }
+
+    /**
+     * 選單本身變更時清除全部緩存
+     */
+    public void clear() {
+        version.incrementAndGet();
+        roleMenus.clear();
+        mergedTrees.invalidateAll();
+        log.debug("清除全部選單樹緩存");
+    }
+
+    private List<MenuNode> getRoleMenus(Long roleId) {
+        List<MenuNode> nodes = roleMenus.get(roleId);
+        if (nodes != null) {
+            return nodes;
+        }
+        long expected = version.get();
+        nodes = menuRepository.findMenuTreeByRoleId(roleId).stream()
+                .map(MenuNode::of)
+                .toList();
+        if (version.get() == expected) {
+            roleMenus.putIfAbsent(roleId, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * 按父級與排序組裝選單樹，父選單不在可訪問範圍內的節點不顯示
+     */
+    private List<UserMenuTree> buildTree(Collection<MenuNode> nodes) {
+        if (nodes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<MenuNode> ordered = new ArrayList<>(nodes);
+        ordered.sort(TREE_ORDER);
+
+        Map<Long, UserMenuTree> treeMap = new LinkedHashMap<>();
+        for (MenuNode node : ordered) {
+            treeMap.put(node.id(), node.toUserMenuTree());
+        }
+
+        List<UserMenuTree> rootMenus = new ArrayList<>();
+        for (MenuNode node : ordered) {
+            UserMenuTree userMenu = treeMap.get(node.id());
+            if (node.parentId() == 0L) {
+                rootMenus.add(userMenu);
+            } else {
+                UserMenuTree parentMenu = treeMap.get(node.parentId());
+                if (parentMenu != null) {
+                    if (parentMenu.getChildren() == null) {
+                        parentMenu.setChildren(new ArrayList<>());
+                    }
+                    parentMenu.getChildren().add(userMenu);
+                }
+            }
+        }
+        return Collections.unmodifiableList(rootMenus);
+    }
+
+    private String computeEtag(List<UserMenuTree> menus) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(objectMapper.writeValueAsBytes(menus));
+            StringBuilder etag = new StringBuilder(34).append('"');
+            for (int i = 0; i < 16; i++) {
+                etag.append(Character.forDigit((hash[i] >> 4) & 0xF, 16))
+                    .append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("無法計算選單樹 ETag", e);
+        }
+    }
+
+    /**
+     * 選單樹節點，從實體複製所需字段，與持久化上下文無關
+     */
+    private record MenuNode(Long id, long parentId, int sortOrder, String routeName, String routePath,
+                            String component, String redirect, boolean alwaysShow, String title,
+                            String icon, boolean hidden, boolean keepAlive, String permission) {
+
+        private static MenuNode of(Menu menu) {
+            return new MenuNode(
+                    menu.getId(),
+                    menu.getParentId() != null ? menu.getParentId() : 0L,
+                    menu.getSortOrder() != null ? menu.getSortOrder() : 0,
+                    menu.getRouteName(),
+                    menu.getRoutePath(),
+                    menu.getComponent(),
+                    menu.getRedirect(),
+                    menu.isAlwaysShow(),
+                    menu.getName(),
+                    menu.getIcon(),
+                    !menu.isVisible(),
+                    menu.isKeepAlive(),
+                    menu.getPermission());
+        }
+
+        private UserMenuTree toUserMenuTree() {
+            UserMenuTree.MenuMeta meta = UserMenuTree.MenuMeta.builder()
+                    .title(title)
+                    .icon(icon)
+                    .hidden(hidden)
+                    .keepAlive(keepAlive)
+                    .permission(permission)
+                    .build();
+
+            return UserMenuTree.builder()
+                    .id(id)
+                    .name(routeName)
+                    .path(routePath)
+                    .component(component)
+                    .redirect(redirect)
+                    .alwaysShow(alwaysShow)
+                    .meta(meta)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.alertsystem.service;
+
+import com.alertsystem.cache.TwoTierCache;
+import com.alertsystem.event.PermissionChangedEvent;
+import com.alertsystem.event.PermissionChangedEvent.ChangeType;
+import com.alertsystem.search.SubstringSearchEngine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 權限世代同步服務
+ * 權限寫入提交後遞增 Redis 中的權限世代並透過 pub/sub 廣播，
+ * 各節點收到後只重建受影響角色的權限與緩存項。
+ * 若發現世代跳號（訊息遺失）則整體重建，另有定期輪詢作為兜底。
+ * 共享的 Redis 緩存只由發起變更的節點清除，其他節點只清除本地 L1。
+ * 另按角色維護主體世代，只有影響 token 內權限標識的變更（角色選單、選單）才會遞增，
+ * 供認證管線判斷 token 中的用戶主體是否仍然有效。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PermissionSyncService implements MessageListener {
+
+    public static final String GENERATION_KEY = "permission:generation";
+    public static final String CHANNEL = "permission:changed";
+    public static final String ROLE_GENERATIONS_KEY = "permission:role-generations";
+
+    /**
+     * 影響所有角色的主體世代欄位
+     */
+    public static final String ALL_ROLES = "*";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final DynamicPermissionService permissionService;
+    private final MenuTreeCacheService menuTreeCacheService;
+    private final EntityCacheService entityCacheService;
+    private final SubstringSearchEngine searchEngine;
+    private final ObjectProvider<CacheManager> cacheManagerProvider;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong localGeneration = new AtomicLong(-1);
+
+    /**
+     * 按角色的主體世代快照，尚未從 Redis 載入時為 null
+     */
+    private volatile Map<String, Long> roleGenerations;
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    /**
+     * 當前節點已套用的權限世代
+     */
+    public long getLocalGeneration() {
+        return localGeneration.get();
+    }
+
+    /**
+     * 角色組合當前的主體世代，寫入 token 供之後比對；快照尚未載入時返回 null
+     */
+    public Map<String, Long> principalGenerations(Collection<Long> roleIds) {
+        Map<String, Long> snapshot = roleGenerations;
+        if (snapshot == null) {
+            return null;
+        }
+        Map<String, Long> generations = new HashMap<>();
+        generations.put(ALL_ROLES, snapshot.getOrDefault(ALL_ROLES, 0L));
+        for (Long roleId : roleIds) {
+            generations.put(roleId.toString(), snapshot.getOrDefault(roleId.toString(), 0L));
+        }
+        return generations;
+    }
+
+    /**
+     * token 中記錄的主體世代是否與其每個角色的當前世代一致
+     */
+    public boolean isPrincipalCurrent(Collection<Long> roleIds, Map<?, ?> tokenGenerations) {
+        Map<String, Long> snapshot = roleGenerations;
+        if (snapshot == null || tokenGenerations == null) {
+            return false;
+        }
+        if (!matches(snapshot, tokenGenerations, ALL_ROLES)) {
+            return false;
+        }
+        for (Long roleId : roleIds) {
+            if (!matches(snapshot, tokenGenerations, roleId.toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 讀取 Redis 中的權限世代
+     */
+    public long getCurrentGeneration() {
+        String value = redisTemplate.opsForValue().get(GENERATION_KEY);
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    /**
+     * 權限寫入事務提交後遞增世代並廣播
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPermissionChanged(PermissionChangedEvent event) {
+        long generation;
+        try {
+            if (affectsPrincipal(event.getChangeType())) {
+                redisTemplate.opsForHash().increment(ROLE_GENERATIONS_KEY, principalField(event), 1);
+            }
+            Long next = redisTemplate.opsForValue().increment(GENERATION_KEY);
+            generation = next != null ? next : 0L;
+            redisTemplate.convertAndSend(CHANNEL, encode(generation, event.getChangeType(), event.getRoleId()));
+        } catch (Exception e) {
+            log.warn("權限世代廣播失敗，僅於本節點重建: {}", e.getMessage());
+            applyChange(event.getChangeType(), event.getRoleId(), true);
+            if (affectsPrincipal(event.getChangeType())) {
+                reloadRoleGenerations();
+            }
+            return;
+        }
+        apply(generation, event.getChangeType(), event.getRoleId(), true);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split(":", 4);
+        if (parts.length != 4) {
+            log.warn("無法解析權限變更訊息: {}", body);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+        long generation = Long.parseLong(parts[1]);
+        ChangeType changeType = ChangeType.valueOf(parts[2]);
+        Long roleId = parts[3].isEmpty() ? null : Long.valueOf(parts[3]);
+        log.debug("收到權限變更訊息: 世代 {}，類型 {}，角色 {}", generation, changeType, roleId);
+        apply(generation, changeType, roleId, false);
+    }
+
+    /**
+     * 定期比對 Redis 世代，補償遺失的 pub/sub 訊息
+     */
+    @Scheduled(fixedDelayString = "${permission.sync.poll-interval:30000}")
+    public void pollGeneration() {
+        try {
+            loadRoleGenerations();
+            long current = getCurrentGeneration();
+            long local = localGeneration.get();
+            if (local < 0) {
+                localGeneration.compareAndSet(local, current);
+            } else if (current > local) {
+                log.info("權限世代落後 ({} < {})，整體重建", local, current);
+                rebuildAll(current, false);
+            }
+        } catch (Exception e) {
+            log.debug("讀取權限世代失敗: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 套用權限變更，origin 表示本節點是否為變更的發起節點
+     */
+    private synchronized void apply(long generation, ChangeType changeType, Long roleId, boolean origin) {
+        long local = localGeneration.get();
+        if (local >= 0 && generation <= local) {
+            return;
+        }
+        if (local >= 0 && generation > local + 1) {
+            log.info("權限世代跳號 ({} -> {})，整體重建", local, generation);
+            rebuildAll(generation, origin);
+            return;
+        }
+        applyChange(changeType, roleId, origin);
+        localGeneration.set(generation);
+        if (affectsPrincipal(changeType)) {
+            reloadRoleGenerations();
+        }
+    }
+
+    private void applyChange(ChangeType changeType, Long roleId, boolean origin) {
+        switch (changeType) {
+            case ROLE_API -> {
+                entityCacheService.evictRoleApiPermissions();
+                permissionService.reloadRolePermissions(roleId);
+                evict("roleApiResources", roleId, origin);
+                evict("roleApiPermissions", roleId, origin);
+                clear("userApiResources", origin);
+            }
+            case ROLE_MENU -> {
+                entityCacheService.evictRoleMenus(roleId);
+                menuTreeCacheService.evictRole(roleId);
+            }
+            case MENU -> {
+                entityCacheService.evictMenus();
+                searchEngine.invalidateMenus();
+                menuTreeCacheService.clear();
+            }
+            default -> {
+                entityCacheService.evictApiResources();
+                searchEngine.invalidateApiResources();
+                permissionService.reloadPermissions();
+                menuTreeCacheService.clear();
+                clear("roleApiResources", origin);
+                clear("roleApiPermissions", origin);
+                clear("userApiResources", origin);
+                clear("apiModules", origin);
+            }
+        }
+    }
+
+    private synchronized void rebuildAll(long generation, boolean origin) {
+        entityCacheService.evictAll();
+        searchEngine.invalidateMenus();
+        applyChange(ChangeType.API_RESOURCE, null, origin);
+        localGeneration.set(generation);
+        reloadRoleGenerations();
+    }
+
+    /**
+     * token 內的權限標識只來自角色與選單，API資源及角色API權限於請求時即時判斷
+     */
+    private boolean affectsPrincipal(ChangeType changeType) {
+        return changeType == ChangeType.ROLE_MENU || changeType == ChangeType.MENU;
+    }
+
+    private String principalField(PermissionChangedEvent event) {
+        return event.getChangeType() == ChangeType.ROLE_MENU && event.getRoleId() != null
+                ? event.getRoleId().toString()
+                : ALL_ROLES;
+    }
+
+    private void loadRoleGenerations() {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(ROLE_GENERATIONS_KEY);
+        Map<String, Long> snapshot = new HashMap<>();
+        entries.forEach((field, value) -> snapshot.put(field.toString(), Long.valueOf(value.toString())));
+        roleGenerations = Map.copyOf(snapshot);
+    }
+
+    /**
+     * 重新載入主體世代，失敗時清空快照使所有 token 退回資料庫載入
+     */
+    private void reloadRoleGenerations() {
+        try {
+            loadRoleGenerations();
+        } catch (Exception e) {
+            log.warn("讀取角色主體世代失敗: {}", e.getMessage());
+            roleGenerations = null;
+        }
+    }
+
+    private static boolean matches(Map<String, Long> snapshot, Map<?, ?> tokenGenerations, String field) {
+        Object tokenValue = tokenGenerations.get(field);
+        return tokenValue instanceof Number number
+                && number.longValue() == snapshot.getOrDefault(field, 0L);
+    }
+
+    private void evict(String cacheName, Long key, boolean origin) {
+        Cache cache = getCache(cacheName);
+        if (cache == null || key == null) {
+            return;
+        }
+        if (!origin && cache instanceof TwoTierCache twoTierCache) {
+            twoTierCache.evictLocal(key);
+        } else {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName, boolean origin) {
+        Cache cache = getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        if (!origin && cache instanceof TwoTierCache twoTierCache) {
+            twoTierCache.clearLocal();
+        } else {
+            cache.clear();
+        }
+    }
+
+    private Cache getCache(String cacheName) {
+        CacheManager cacheManager = cacheManagerProvider.getIfAvailable();
+        return cacheManager != null ? cacheManager.getCache(cacheName) : null;
+    }
+
+    private String encode(long generation, ChangeType changeType, Long roleId) {
+        return nodeId + ":" + generation + ":" + changeType.name() + ":" + (roleId != null ? roleId : "");
+    }
+}
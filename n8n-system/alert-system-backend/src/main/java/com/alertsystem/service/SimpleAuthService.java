@@ -1,7 +1,7 @@
 package com.alertsystem.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.alertsystem.entity.User;
 import com.alertsystem.repository.UserRepository;
@@ -12,7 +12,8 @@ public class SimpleAuthService {
     @Autowired
     private UserRepository userRepository;
     
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private PasswordEncoder passwordEncoder;
     
     public boolean validateLogin(String username, String plainPassword) {
         try {
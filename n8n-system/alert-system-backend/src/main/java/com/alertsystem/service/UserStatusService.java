@@ -0,0 +1,44 @@
+package com.alertsystem.service;
+
+import com.alertsystem.entity.User;
+import com.alertsystem.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+
+/**
+ * 用戶狀態快照
+ * 定期從資料庫載入非啟用狀態（停用、鎖定、待審核）的用戶ID，
+ * 供認證管線在不查詢資料庫的情況下判斷 token 所屬用戶是否仍可使用。
+ * 快照尚未載入或載入失敗時一律視為需要檢查，由資料庫載入用戶主體。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserStatusService {
+
+    private final UserRepository userRepository;
+
+    private volatile Set<Long> inactiveUserIds;
+
+    /**
+     * 用戶是否可能處於非啟用狀態
+     */
+    public boolean isPossiblyInactive(Long userId) {
+        Set<Long> snapshot = inactiveUserIds;
+        return snapshot == null || snapshot.contains(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.user-status.refresh-interval:30000}")
+    public void refresh() {
+        try {
+            inactiveUserIds = Set.copyOf(userRepository.findIdsByStatusNot(User.UserStatus.ACTIVE));
+        } catch (Exception e) {
+            log.warn("載入用戶狀態失敗: {}", e.getMessage());
+            inactiveUserIds = null;
+        }
+    }
+}
@@ -4,14 +4,20 @@ import com.alertsystem.dto.auth.*;
 import com.alertsystem.entity.LoginLog;
 import com.alertsystem.entity.Role;
 import com.alertsystem.entity.User;
-import com.alertsystem.repository.LoginLogRepository;
+import com.alertsystem.exception.BusinessException;
+import com.alertsystem.repository.MenuRepository;
 import com.alertsystem.repository.RoleRepository;
 import com.alertsystem.repository.UserRepository;
+import com.alertsystem.security.PasswordHashingRejectedException;
+import com.alertsystem.security.TokenRevocationService;
 import com.alertsystem.service.AuthService;
+import com.alertsystem.service.LoginAuditWriter;
+import com.alertsystem.service.LoginThrottleService;
+import com.alertsystem.service.PermissionSyncService;
 import com.alertsystem.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -22,8 +28,11 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,14 +43,23 @@ public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
-    private final LoginLogRepository loginLogRepository;
+    private final LoginAuditWriter loginAuditWriter;
+    private final LoginThrottleService loginThrottleService;
+    private final MenuRepository menuRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
-    private final StringRedisTemplate redisTemplate;
+    private final PermissionSyncService permissionSyncService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     public LoginResponse login(LoginRequest request, String ipAddress, String userAgent) {
+        // 滑動窗口節流檢查（僅查詢 Redis）
+        if (loginThrottleService.isBlocked(ipAddress, request.getUsername())) {
+            loginAuditWriter.record(null, request.getUsername(), ipAddress, userAgent, LoginLog.LoginStatus.BLOCKED);
+            throw new BusinessException("登入嘗試過於頻繁，請稍後再試");
+        }
+
         try {
             // 驗證用戶憑證
             Authentication authentication = authenticationManager.authenticate(
@@ -58,25 +76,11 @@ public class AuthServiceImpl implements AuthService {
             }
 
             // 生成 JWT Token
-            String token = jwtUtil.generateToken(user.getUsername());
-            String refreshToken = jwtUtil.generateRefreshToken(user.getUsername());
-
-            // 將 token 存入 Redis (用於登出時撤銷)
-            redisTemplate.opsForValue().set(
-                "token:" + token, 
-                user.getUsername(), 
-                24, 
-                TimeUnit.HOURS
-            );
+            JwtUtil.TokenPair tokens = jwtUtil.generateTokenPair(user.getUsername(), buildTokenClaims(user));
 
-            // 記錄登入日誌
-            LoginLog loginLog = LoginLog.builder()
-                .user(user)
-                .ipAddress(ipAddress)
-                .userAgent(userAgent)
-                .status(LoginLog.LoginStatus.SUCCESS)
-                .build();
-            loginLogRepository.save(loginLog);
+            // 記錄登入日誌（非同步批量寫入）
+            loginAuditWriter.record(user.getId(), user.getUsername(), ipAddress, userAgent, LoginLog.LoginStatus.SUCCESS);
+            loginThrottleService.reset(request.getUsername());
 
             // 構建響應
             LoginResponse.UserInfo userInfo = LoginResponse.UserInfo.builder()
@@ -91,24 +95,22 @@ public class AuthServiceImpl implements AuthService {
                 .build();
 
             return LoginResponse.builder()
-                .token(token)
-                .refreshToken(refreshToken)
+                .token(tokens.accessToken())
+                .refreshToken(tokens.refreshToken())
                 .tokenType("Bearer")
                 .expiresIn(86400L) // 24小時
                 .userInfo(userInfo)
                 .build();
 
+        } catch (PasswordHashingRejectedException e) {
+            // 雜湊執行緒池已滿，不計入失敗次數
+            throw e;
         } catch (Exception e) {
             // 記錄失敗的登入嘗試
+            loginThrottleService.recordFailure(ipAddress, request.getUsername());
             User user = userRepository.findByUsername(request.getUsername()).orElse(null);
             if (user != null) {
-                LoginLog loginLog = LoginLog.builder()
-                    .user(user)
-                    .ipAddress(ipAddress)
-                    .userAgent(userAgent)
-                    .status(LoginLog.LoginStatus.FAILED)
-                    .build();
-                loginLogRepository.save(loginLog);
+                loginAuditWriter.record(user.getId(), user.getUsername(), ipAddress, userAgent, LoginLog.LoginStatus.FAILED);
             }
             
             log.error("登入失敗: {}", e.getMessage());
@@ -145,16 +147,7 @@ public class AuthServiceImpl implements AuthService {
         user = userRepository.save(user);
 
         // 生成 Token
-        String token = jwtUtil.generateToken(user.getUsername());
-        String refreshToken = jwtUtil.generateRefreshToken(user.getUsername());
-
-        // 將 token 存入 Redis
-        redisTemplate.opsForValue().set(
-            "token:" + token, 
-            user.getUsername(), 
-            24, 
-            TimeUnit.HOURS
-        );
+        JwtUtil.TokenPair tokens = jwtUtil.generateTokenPair(user.getUsername(), buildTokenClaims(user));
 
         // 構建響應
         LoginResponse.UserInfo userInfo = LoginResponse.UserInfo.builder()
@@ -169,8 +162,8 @@ public class AuthServiceImpl implements AuthService {
             .build();
 
         return LoginResponse.builder()
-            .token(token)
-            .refreshToken(refreshToken)
+            .token(tokens.accessToken())
+            .refreshToken(tokens.refreshToken())
             .tokenType("Bearer")
             .expiresIn(86400L)
             .userInfo(userInfo)
@@ -208,13 +201,30 @@ public class AuthServiceImpl implements AuthService {
     }
 
     @Override
-    public void logout(String token) {
+    public void logout(String token, String refreshToken) {
         if (StringUtils.hasText(token) && token.startsWith("Bearer ")) {
             token = token.substring(7);
         }
         
-        // 從 Redis 中刪除 token
-        redisTemplate.delete("token:" + token);
+        // 將 access token 及其關聯的 refresh token 加入撤銷名單，並通知各節點
+        Claims claims = StringUtils.hasText(token) ? jwtUtil.parseClaims(token) : null;
+        if (jwtUtil.isAccessToken(claims)) {
+            tokenRevocationService.revoke(token);
+            String refreshTokenId = claims.get(JwtUtil.CLAIM_REFRESH_TOKEN_ID, String.class);
+            Number refreshExpiration = claims.get(JwtUtil.CLAIM_REFRESH_EXPIRATION, Number.class);
+            if (refreshTokenId != null && refreshExpiration != null) {
+                tokenRevocationService.revoke(refreshTokenId, refreshExpiration.longValue());
+            }
+        }
+        
+        // 請求中附帶的 refresh token 同屬該用戶時一併撤銷
+        if (StringUtils.hasText(refreshToken)) {
+            Claims refreshClaims = jwtUtil.parseClaims(refreshToken);
+            if (jwtUtil.isRefreshToken(refreshClaims)
+                    && (claims == null || refreshClaims.getSubject().equals(claims.getSubject()))) {
+                tokenRevocationService.revoke(refreshToken);
+            }
+        }
         
         // 清空 Security Context
         SecurityContextHolder.clearContext();
@@ -222,25 +232,25 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public LoginResponse refreshToken(String refreshToken) {
-        if (!jwtUtil.validateToken(refreshToken)) {
+        Claims claims = jwtUtil.parseClaims(refreshToken);
+        if (!jwtUtil.isRefreshToken(claims) || tokenRevocationService.isRevoked(refreshToken, claims)) {
             throw new RuntimeException("Refresh token 無效");
         }
 
-        String username = jwtUtil.getUsernameFromToken(refreshToken);
+        String username = claims.getSubject();
         User user = userRepository.findByUsernameWithRoles(username)
             .orElseThrow(() -> new RuntimeException("用戶不存在"));
 
+        // 檢查用戶狀態
+        if (user.getStatus() != User.UserStatus.ACTIVE) {
+            throw new RuntimeException("用戶帳號已被停用");
+        }
+
         // 生成新的 token
-        String newToken = jwtUtil.generateToken(user.getUsername());
-        String newRefreshToken = jwtUtil.generateRefreshToken(user.getUsername());
+        JwtUtil.TokenPair tokens = jwtUtil.generateTokenPair(user.getUsername(), buildTokenClaims(user));
 
-        // 將新 token 存入 Redis
-        redisTemplate.opsForValue().set(
-            "token:" + newToken, 
-            user.getUsername(), 
-            24, 
-            TimeUnit.HOURS
-        );
+        // 輪換 refresh token：已換發的舊 token 立即撤銷，登出只需撤銷最新的一組
+        tokenRevocationService.revoke(refreshToken);
 
         // 構建響應
         LoginResponse.UserInfo userInfo = LoginResponse.UserInfo.builder()
@@ -255,11 +265,37 @@ public class AuthServiceImpl implements AuthService {
             .build();
 
         return LoginResponse.builder()
-            .token(newToken)
-            .refreshToken(newRefreshToken)
+            .token(tokens.accessToken())
+            .refreshToken(tokens.refreshToken())
             .tokenType("Bearer")
             .expiresIn(86400L)
             .userInfo(userInfo)
             .build();
     }
+
+    /**
+     * 構建 token 內嵌的用戶主體信息：用戶ID、角色ID、權限標識及各角色的主體世代
+     */
+    private Map<String, Object> buildTokenClaims(User user) {
+        List<String> authorities = new ArrayList<>();
+        user.getRoles().forEach(role -> authorities.add("ROLE_" + role.getName()));
+        menuRepository.findPermissionsByUserId(user.getId()).stream()
+            .filter(StringUtils::hasText)
+            .forEach(authorities::add);
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(JwtUtil.CLAIM_USER_ID, user.getId());
+        claims.put(JwtUtil.CLAIM_EMAIL, user.getEmail());
+        List<Long> roleIds = user.getRoles().stream()
+            .map(Role::getId)
+            .sorted()
+            .collect(Collectors.toList());
+        claims.put(JwtUtil.CLAIM_ROLE_IDS, roleIds);
+        claims.put(JwtUtil.CLAIM_AUTHORITIES, authorities);
+        Map<String, Long> generations = permissionSyncService.principalGenerations(roleIds);
+        if (generations != null) {
+            claims.put(JwtUtil.CLAIM_PERMISSION_VERSION, generations);
+        }
+        return claims;
+    }
 }
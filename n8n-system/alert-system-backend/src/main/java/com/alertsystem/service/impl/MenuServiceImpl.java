@@ -1,17 +1,28 @@
 package com.alertsystem.service.impl;
 
+import com.alertsystem.dto.common.CursorPageResponse;
+import com.alertsystem.dto.common.KeysetCursor;
 import com.alertsystem.dto.menu.*;
 import com.alertsystem.entity.Menu;
 import com.alertsystem.entity.Role;
+import com.alertsystem.entity.User;
+import com.alertsystem.event.PermissionChangedEvent;
 import com.alertsystem.exception.ResourceNotFoundException;
 import com.alertsystem.exception.BusinessException;
 import com.alertsystem.repository.MenuRepository;
+import com.alertsystem.repository.RoleAssignmentJdbcRepository;
 import com.alertsystem.repository.RoleRepository;
+import com.alertsystem.repository.TableStatisticsRepository;
 import com.alertsystem.repository.UserRepository;
+import com.alertsystem.search.SubstringSearchEngine;
 import com.alertsystem.service.MenuService;
+import com.alertsystem.service.MenuTreeCacheService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,16 +38,26 @@ public class MenuServiceImpl implements MenuService {
 
     private final MenuRepository menuRepository;
     private final RoleRepository roleRepository;
+    private final RoleAssignmentJdbcRepository roleAssignmentRepository;
     private final UserRepository userRepository;
+    private final TableStatisticsRepository tableStatisticsRepository;
+    private final MenuTreeCacheService menuTreeCacheService;
+    private final SubstringSearchEngine searchEngine;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${search.max-hits:1000}")
+    private int searchMaxHits;
 
     @Override
     public MenuDTO createMenu(MenuCreateRequest request) {
         log.info("Creating menu: {}", request.getName());
         
         // 檢查父選單是否存在
+        Menu parent = null;
         if (request.getParentId() != null && request.getParentId() > 0) {
-            menuRepository.findById(request.getParentId())
+            parent = menuRepository.findById(request.getParentId())
                 .orElseThrow(() -> new ResourceNotFoundException("父選單不存在"));
+            resolveTreePath(parent);
         }
         
         // 檢查同級選單名稱是否重複
@@ -50,6 +71,8 @@ public class MenuServiceImpl implements MenuService {
         
         Menu menu = convertToEntity(request);
         menu = menuRepository.save(menu);
+        menu.setTreePath(buildTreePath(parent, menu.getId()));
+        eventPublisher.publishEvent(PermissionChangedEvent.menuChanged(this));
         
         log.info("Menu created successfully with id: {}", menu.getId());
         return convertToDTO(menu);
@@ -59,17 +82,38 @@ public class MenuServiceImpl implements MenuService {
     public MenuDTO updateMenu(MenuUpdateRequest request) {
         log.info("Updating menu: {}", request.getId());
         
-        Menu menu = menuRepository.findById(request.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("選單不存在"));
-        
         // 檢查是否將選單設為自己的子選單
         if (request.getParentId() != null && request.getParentId().equals(request.getId())) {
             throw new BusinessException("不能將選單設為自己的子選單");
         }
         
+        // 可能移動時先對選單、新父選單及其祖先加寫鎖，再讀取最新的物化路徑
+        Map<Long, Menu> locked = request.getParentId() != null
+            ? lockForMove(request.getId(), request.getParentId())
+            : Collections.emptyMap();
+        Menu menu = locked.containsKey(request.getId())
+            ? locked.get(request.getId())
+            : menuRepository.findById(request.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("選單不存在"));
+        
+        String oldTreePath = menu.getTreePath();
+        boolean moved = request.getParentId() != null && !request.getParentId().equals(menu.getParentId());
+        if (moved) {
+            oldTreePath = resolveTreePath(menu);
+            menu.setTreePath(buildTreePath(resolveNewParent(menu, request.getParentId(), locked), menu.getId()));
+        }
+        
         updateEntity(menu, request);
         menu = menuRepository.save(menu);
         
+        // 以一條 UPDATE 改寫整棵子樹的物化路徑
+        if (moved && oldTreePath != null) {
+            int repathed = menuRepository.repathDescendants(oldTreePath, menu.getTreePath());
+            log.info("Menu {} moved from {} to {}, {} descendants re-pathed",
+                menu.getId(), oldTreePath, menu.getTreePath(), repathed);
+        }
+        eventPublisher.publishEvent(PermissionChangedEvent.menuChanged(this));
+        
         log.info("Menu updated successfully: {}", menu.getId());
         return convertToDTO(menu);
     }
@@ -87,6 +131,7 @@ public class MenuServiceImpl implements MenuService {
         }
         
         menuRepository.delete(menu);
+        eventPublisher.publishEvent(PermissionChangedEvent.menuChanged(this));
         log.info("Menu deleted successfully: {}", id);
     }
 
@@ -109,7 +154,71 @@ public class MenuServiceImpl implements MenuService {
     @Transactional(readOnly = true)
     public Page<MenuDTO> getMenuList(Pageable pageable) {
         Page<Menu> menuPage = menuRepository.findAll(pageable);
-        return menuPage.map(this::convertToDTO);
+        Set<Long> parentIds = findParentIdsWithChildren(menuPage.getContent());
+        return menuPage.map(menu -> convertToDTO(menu, parentIds.contains(menu.getId())));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<MenuDTO> scrollMenuList(String cursor, int size, CursorPageResponse.CountMode countMode) {
+        size = CursorPageResponse.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Menu> rows = after == null
+            ? menuRepository.findMenusFirstPage(limit)
+            : menuRepository.findMenusAfter(after.sortOrder(), after.id(), limit);
+
+        boolean hasNext = rows.size() > size;
+        List<Menu> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Menu last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getSortOrder(), last.getId()).encode();
+        }
+
+        Set<Long> parentIds = findParentIdsWithChildren(content);
+        List<MenuDTO> menus = content.stream()
+            .map(menu -> convertToDTO(menu, parentIds.contains(menu.getId())))
+            .collect(Collectors.toList());
+        return CursorPageResponse.of(menus, size, nextCursor, countMenus(countMode));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MenuDTO> searchMenus(String name) {
+        if (name == null || name.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<Long> rankedIds = searchEngine.searchMenus(name.trim(), searchMaxHits);
+        if (rankedIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Menu> byId = menuRepository.findAllById(rankedIds).stream()
+            .collect(Collectors.toMap(Menu::getId, menu -> menu));
+        List<Menu> menus = rankedIds.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        Set<Long> parentIds = findParentIdsWithChildren(menus);
+        return menus.stream()
+            .map(menu -> convertToDTO(menu, parentIds.contains(menu.getId())))
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 估算模式讀取 pg_class 統計信息，資料表未分析過時退回精確計數
+     */
+    private CursorPageResponse.TotalCount countMenus(CursorPageResponse.CountMode countMode) {
+        if (countMode == null || countMode == CursorPageResponse.CountMode.NONE) {
+            return null;
+        }
+        if (countMode == CursorPageResponse.CountMode.ESTIMATED) {
+            long estimate = tableStatisticsRepository.estimateRowCount("menus");
+            if (estimate >= 0) {
+                return new CursorPageResponse.TotalCount(estimate, true);
+            }
+        }
+        return new CursorPageResponse.TotalCount(menuRepository.count(), false);
     }
 
     @Override
@@ -118,11 +227,19 @@ public class MenuServiceImpl implements MenuService {
         log.info("Getting user menu tree for user: {}", userId);
         
         // 驗證用戶是否存在
-        userRepository.findById(userId)
+        User user = userRepository.findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("用戶不存在"));
         
-        List<Menu> userMenus = menuRepository.findMenuTreeByUserId(userId);
-        return buildUserMenuTree(userMenus);
+        Set<Long> roleIds = user.getRoles() != null
+            ? user.getRoles().stream().map(Role::getId).collect(Collectors.toSet())
+            : Collections.emptySet();
+        return menuTreeCacheService.getUserMenuTree(roleIds).getMenus();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserMenuTreeSnapshot getUserMenuTreeSnapshot(Collection<Long> roleIds) {
+        return menuTreeCacheService.getUserMenuTree(roleIds);
     }
 
     @Override
@@ -135,48 +252,67 @@ public class MenuServiceImpl implements MenuService {
     @Transactional(readOnly = true)
     public List<MenuDTO> getMenusByRoleId(Long roleId) {
         List<Menu> menus = menuRepository.findMenusByRoleId(roleId);
-        return menus.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        return convertToDTOs(menus);
     }
 
     @Override
     public void assignMenusToRole(Long roleId, List<Long> menuIds) {
         log.info("Assigning menus to role: {}, menus: {}", roleId, menuIds);
         
-        Role role = roleRepository.findById(roleId)
-            .orElseThrow(() -> new ResourceNotFoundException("角色不存在"));
+        if (!roleRepository.existsById(roleId)) {
+            throw new ResourceNotFoundException("角色不存在");
+        }
+        
+        // 與現有分配做差集，只寫入變化部分
+        Set<Long> targetIds = menuIds != null ? new HashSet<>(menuIds) : new HashSet<>();
+        targetIds.remove(null);
+        Set<Long> currentIds = new HashSet<>(roleAssignmentRepository.findMenuIdsByRoleId(roleId));
         
-        Set<Menu> menus = new HashSet<>();
-        if (menuIds != null && !menuIds.isEmpty()) {
-            menus = menuIds.stream()
-                .map(menuId -> menuRepository.findById(menuId)
-                    .orElseThrow(() -> new ResourceNotFoundException("選單不存在: " + menuId)))
-                .collect(Collectors.toSet());
+        Set<Long> toAdd = new HashSet<>(targetIds);
+        toAdd.removeAll(currentIds);
+        Set<Long> toRemove = new HashSet<>(currentIds);
+        toRemove.removeAll(targetIds);
+        
+        if (!toAdd.isEmpty()) {
+            Set<Long> missingIds = new HashSet<>(toAdd);
+            missingIds.removeAll(menuRepository.findExistingIds(toAdd));
+            if (!missingIds.isEmpty()) {
+                throw new ResourceNotFoundException("選單不存在: " + missingIds.iterator().next());
+            }
         }
         
-        role.setMenus(menus);
-        roleRepository.save(role);
+        int removed = roleAssignmentRepository.deleteRoleMenus(roleId, toRemove);
+        int added = roleAssignmentRepository.insertRoleMenus(roleId, toAdd);
+        if (removed > 0 || added > 0) {
+            eventPublisher.publishEvent(PermissionChangedEvent.roleMenuChanged(this, roleId));
+        }
         
-        log.info("Menus assigned to role successfully");
+        log.info("Menus assigned to role {} successfully: {} added, {} removed", roleId, added, removed);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<MenuDTO> getChildMenus(Long parentId) {
         List<Menu> children = menuRepository.findByParentIdOrderBySortOrderAsc(parentId);
-        return children.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        return convertToDTOs(children);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MenuDTO> getMenuSubtree(Long id) {
+        Menu menu = menuRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("選單不存在"));
+        if (menu.getTreePath() == null) {
+            return convertToDTOs(List.of(menu));
+        }
+        return convertToDTOs(menuRepository.findSubtree(menu.getTreePath()));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<MenuDTO> getMenusByType(Integer type) {
         List<Menu> menus = menuRepository.findByTypeOrderBySortOrderAsc(type);
-        return menus.stream()
-            .map(this::convertToDTO)
-            .collect(Collectors.toList());
+        return convertToDTOs(menus);
     }
 
     @Override
@@ -203,10 +339,11 @@ public class MenuServiceImpl implements MenuService {
     public List<MenuDTO> buildMenuTree(List<Menu> menus) {
         Map<Long, MenuDTO> menuMap = new HashMap<>();
         List<MenuDTO> rootMenus = new ArrayList<>();
+        Set<Long> parentIds = findParentIdsWithChildren(menus);
         
         // 轉換為DTO並建立映射
         for (Menu menu : menus) {
-            MenuDTO menuDTO = convertToDTO(menu);
+            MenuDTO menuDTO = convertToDTO(menu, parentIds.contains(menu.getId()));
             menuMap.put(menu.getId(), menuDTO);
         }
         
@@ -246,76 +383,141 @@ public class MenuServiceImpl implements MenuService {
         }
     }
 
-    private List<UserMenuTree> buildUserMenuTree(List<Menu> menus) {
-        Map<Long, UserMenuTree> menuMap = new HashMap<>();
-        List<UserMenuTree> rootMenus = new ArrayList<>();
-        
-        // 轉換為UserMenuTree並建立映射
-        for (Menu menu : menus) {
-            UserMenuTree userMenu = convertToUserMenuTree(menu);
-            menuMap.put(menu.getId(), userMenu);
+    @Override
+    public MenuDTO convertToDTO(Menu menu) {
+        if (menu == null) {
+            return null;
         }
-        
-        // 構建樹狀結構
-        for (Menu menu : menus) {
-            UserMenuTree userMenu = menuMap.get(menu.getId());
-            if (menu.getParentId() == null || menu.getParentId() == 0L) {
-                rootMenus.add(userMenu);
-            } else {
-                UserMenuTree parentMenu = menuMap.get(menu.getParentId());
-                if (parentMenu != null) {
-                    if (parentMenu.getChildren() == null) {
-                        parentMenu.setChildren(new ArrayList<>());
-                    }
-                    parentMenu.getChildren().add(userMenu);
-                }
-            }
+        return convertToDTO(menu, hasChildren(menu.getId()));
+    }
+
+    /**
+     * 批量轉換為DTO，子選單存在與否以一次分組查詢取得
+     */
+    private List<MenuDTO> convertToDTOs(List<Menu> menus) {
+        Set<Long> parentIds = findParentIdsWithChildren(menus);
+        return menus.stream()
+            .map(menu -> convertToDTO(menu, parentIds.contains(menu.getId())))
+            .collect(Collectors.toList());
+    }
+
+    private Set<Long> findParentIdsWithChildren(List<Menu> menus) {
+        if (menus.isEmpty()) {
+            return Collections.emptySet();
         }
-        
-        // 對子選單進行排序
-        sortUserMenuTree(rootMenus);
-        
-        return rootMenus;
+        List<Long> ids = menus.stream()
+            .map(Menu::getId)
+            .collect(Collectors.toList());
+        return new HashSet<>(menuRepository.findParentIdsWithChildren(ids));
     }
 
-    private void sortUserMenuTree(List<UserMenuTree> menus) {
-        if (menus == null || menus.isEmpty()) {
-            return;
+    /**
+     * 對被移動的選單、新父選單及新父選單的所有祖先按ID順序加寫鎖。
+     * 兩個並發移動若會互相成為對方的子樹，必然爭用同一祖先的鎖而被串行化；
+     * 加鎖後新父選單的路徑若已被並發修改，則祖先集合可能不完整，要求重試。
+     */
+    private Map<Long, Menu> lockForMove(Long id, Long newParentId) {
+        Set<Long> ids = new TreeSet<>();
+        ids.add(id);
+        String parentPath = null;
+        if (newParentId != 0L) {
+            ids.add(newParentId);
+            parentPath = menuRepository.findTreePathById(newParentId);
+            ids.addAll(pathIds(parentPath));
         }
         
-        for (UserMenuTree menu : menus) {
-            if (menu.getChildren() != null) {
-                sortUserMenuTree(menu.getChildren());
-            }
+        Map<Long, Menu> locked = menuRepository.lockAllById(ids).stream()
+            .collect(Collectors.toMap(Menu::getId, menu -> menu));
+        if (!locked.containsKey(id)) {
+            throw new ResourceNotFoundException("選單不存在");
         }
+        Menu newParent = locked.get(newParentId);
+        if (newParent != null && !Objects.equals(parentPath, newParent.getTreePath())) {
+            throw new BusinessException("選單結構已被同時修改，請重試");
+        }
+        return locked;
     }
 
-    private UserMenuTree convertToUserMenuTree(Menu menu) {
-        UserMenuTree.MenuMeta meta = UserMenuTree.MenuMeta.builder()
-            .title(menu.getName())
-            .icon(menu.getIcon())
-            .hidden(!menu.isVisible())
-            .keepAlive(menu.isKeepAlive())
-            .permission(menu.getPermission())
-            .build();
-        
-        return UserMenuTree.builder()
-            .id(menu.getId())
-            .name(menu.getRouteName())
-            .path(menu.getRoutePath())
-            .component(menu.getComponent())
-            .redirect(menu.getRedirect())
-            .alwaysShow(menu.isAlwaysShow())
-            .meta(meta)
-            .build();
+    /**
+     * 取得移動後的新父選單，並以物化路徑檢查是否移動到自己的子樹下
+     */
+    private Menu resolveNewParent(Menu menu, Long newParentId, Map<Long, Menu> locked) {
+        if (newParentId == 0L) {
+            return null;
+        }
+        Menu newParent = locked.get(newParentId);
+        if (newParent == null) {
+            throw new ResourceNotFoundException("父選單不存在");
+        }
+        String treePath = resolveTreePath(menu);
+        String parentPath = resolveTreePath(newParent);
+        if (parentPath.startsWith(treePath + "/")) {
+            throw new BusinessException("不能將選單移動到自己的子選單下");
+        }
+        return newParent;
     }
 
-    @Override
-    public MenuDTO convertToDTO(Menu menu) {
-        if (menu == null) {
-            return null;
+    /**
+     * 取得選單的物化路徑，缺失時沿父級鏈重建並寫回；
+     * 父級鏈斷裂或成環時無法確定位置，拒絕操作
+     */
+    private String resolveTreePath(Menu menu) {
+        if (menu.getTreePath() != null) {
+            return menu.getTreePath();
+        }
+        Deque<Long> chain = new ArrayDeque<>();
+        Set<Long> visited = new HashSet<>();
+        chain.push(menu.getId());
+        visited.add(menu.getId());
+        Long parentId = menu.getParentId();
+        String prefix = "";
+        while (parentId != null && parentId != 0L) {
+            if (!visited.add(parentId)) {
+                throw new BusinessException("選單 " + menu.getId() + " 的父級鏈存在循環，無法重建物化路徑");
+            }
+            Menu parent = menuRepository.findById(parentId)
+                .orElseThrow(() -> new BusinessException("選單 " + menu.getId() + " 的父級鏈斷裂，無法重建物化路徑"));
+            if (parent.getTreePath() != null) {
+                prefix = parent.getTreePath();
+                break;
+            }
+            chain.push(parent.getId());
+            parentId = parent.getParentId();
         }
         
+        StringBuilder treePath = new StringBuilder(prefix);
+        for (Long ancestorId : chain) {
+            treePath.append('/').append(ancestorId);
+        }
+        if (pathIds(prefix).contains(menu.getId())) {
+            throw new BusinessException("選單 " + menu.getId() + " 的父級鏈存在循環，無法重建物化路徑");
+        }
+        menu.setTreePath(treePath.toString());
+        log.info("Rebuilt missing tree path of menu {}: {}", menu.getId(), menu.getTreePath());
+        return menu.getTreePath();
+    }
+
+    private static List<Long> pathIds(String treePath) {
+        if (treePath == null || treePath.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(treePath.split("/"))
+            .filter(segment -> !segment.isEmpty())
+            .map(Long::valueOf)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * 物化路徑格式為 /根ID/.../自身ID，父選單的路徑須已確定
+     */
+    private String buildTreePath(Menu parent, Long id) {
+        if (parent == null) {
+            return "/" + id;
+        }
+        return resolveTreePath(parent) + "/" + id;
+    }
+
+    private MenuDTO convertToDTO(Menu menu, boolean hasChildren) {
         return MenuDTO.builder()
             .id(menu.getId())
             .parentId(menu.getParentId())
@@ -336,7 +538,7 @@ public class MenuServiceImpl implements MenuService {
             .createdAt(menu.getCreatedAt())
             .updatedAt(menu.getUpdatedAt())
             .typeDescription(getTypeDescription(menu.getType()))
-            .hasChildren(hasChildren(menu.getId()))
+            .hasChildren(hasChildren)
             .build();
     }
 
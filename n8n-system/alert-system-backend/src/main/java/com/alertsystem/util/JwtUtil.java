@@ -2,18 +2,34 @@ package com.alertsystem.util;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 @Slf4j
 public class JwtUtil {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_ROLE_IDS = "rids";
+    public static final String CLAIM_AUTHORITIES = "auth";
+    public static final String CLAIM_PERMISSION_VERSION = "pv";
+    public static final String CLAIM_TOKEN_USE = "token_use";
+    public static final String CLAIM_REFRESH_TOKEN_ID = "rti";
+    public static final String CLAIM_REFRESH_EXPIRATION = "rexp";
+
+    public static final String TOKEN_USE_ACCESS = "access";
+    public static final String TOKEN_USE_REFRESH = "refresh";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -23,23 +39,65 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    /**
+     * 預先構建簽名金鑰與解析器，JwtParser 不可變且執行緒安全
+     */
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
     }
 
     public String generateToken(String username) {
-        return createToken(username, expiration);
+        return generateToken(username, Map.of());
+    }
+
+    /**
+     * 生成攜帶用戶主體信息的 token，供無狀態認證使用
+     */
+    public String generateToken(String username, Map<String, Object> claims) {
+        return createToken(username, claims, TOKEN_USE_ACCESS, UUID.randomUUID().toString(), new Date(), expiration);
     }
 
     public String generateRefreshToken(String username) {
-        return createToken(username, refreshExpiration);
+        return createToken(username, Map.of(), TOKEN_USE_REFRESH, UUID.randomUUID().toString(), new Date(), refreshExpiration);
     }
 
-    private String createToken(String username, Long expiration) {
+    /**
+     * 同時生成 access token 與 refresh token，
+     * access token 記錄 refresh token 的 ID 與過期時間，登出時可一併撤銷
+     */
+    public TokenPair generateTokenPair(String username, Map<String, Object> claims) {
         Date now = new Date();
+        String refreshTokenId = UUID.randomUUID().toString();
+        String refreshToken = createToken(username, Map.of(), TOKEN_USE_REFRESH, refreshTokenId, now, refreshExpiration);
+
+        Map<String, Object> accessClaims = new HashMap<>(claims);
+        accessClaims.put(CLAIM_REFRESH_TOKEN_ID, refreshTokenId);
+        // JWT 的 exp 以秒為單位，與解析後的過期時間保持一致
+        accessClaims.put(CLAIM_REFRESH_EXPIRATION, (now.getTime() + refreshExpiration) / 1000 * 1000);
+        String accessToken = createToken(username, accessClaims, TOKEN_USE_ACCESS, UUID.randomUUID().toString(), now, expiration);
+        return new TokenPair(accessToken, refreshToken);
+    }
+
+    private String createToken(String username, Map<String, Object> claims, String tokenUse,
+                               String tokenId, Date now, Long expiration) {
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .addClaims(claims)
+                .claim(CLAIM_TOKEN_USE, tokenUse)
+                .setId(tokenId)
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
@@ -61,11 +119,45 @@ public class JwtUtil {
     }
 
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * 驗證簽名並解析 token，每個 token 只需解析一次
+     * 驗證失敗或已過期時返回 null
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return getAllClaimsFromToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("JWT token validation failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 以已解析的 claims 驗證用戶名及有效期，不再重複驗簽
+     */
+    public boolean validateClaims(Claims claims, String username) {
+        return claims != null
+                && username != null
+                && username.equals(claims.getSubject())
+                && claims.getExpiration() != null
+                && claims.getExpiration().after(new Date());
+    }
+
+    /**
+     * 是否為 access token，只有 access token 可用於訪問 API
+     */
+    public boolean isAccessToken(Claims claims) {
+        return claims != null && TOKEN_USE_ACCESS.equals(claims.get(CLAIM_TOKEN_USE, String.class));
+    }
+
+    /**
+     * 是否為 refresh token，只有 refresh token 可用於換發新 token
+     */
+    public boolean isRefreshToken(Claims claims) {
+        return claims != null && TOKEN_USE_REFRESH.equals(claims.get(CLAIM_TOKEN_USE, String.class));
     }
 
     public Boolean isTokenExpired(String token) {
@@ -74,25 +166,16 @@ public class JwtUtil {
     }
 
     public Boolean validateToken(String token, String username) {
-        try {
-            final String tokenUsername = getUsernameFromToken(token);
-            return (tokenUsername.equals(username) && !isTokenExpired(token));
-        } catch (JwtException | IllegalArgumentException e) {
-            log.error("JWT token validation failed: {}", e.getMessage());
-            return false;
-        }
+        return validateClaims(parseClaims(token), username);
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            log.error("JWT token validation failed: {}", e.getMessage());
-            return false;
-        }
+        return parseClaims(token) != null;
+    }
+
+    /**
+     * 同時簽發的 access token 與 refresh token
+     */
+    public record TokenPair(String accessToken, String refreshToken) {
     }
 }
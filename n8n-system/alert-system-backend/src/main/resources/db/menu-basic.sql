@@ -4,7 +4,7 @@
 CREATE TABLE IF NOT EXISTS menus (
     id BIGSERIAL PRIMARY KEY,
     parent_id BIGINT DEFAULT 0,
-    tree_path VARCHAR(255),
+    tree_path VARCHAR(255) COLLATE "C",
     name VARCHAR(64) NOT NULL,
     type SMALLINT NOT NULL,
     route_name VARCHAR(255),
@@ -35,6 +35,7 @@ CREATE TABLE IF NOT EXISTS role_menus (
 
 -- 創建索引
 CREATE INDEX IF NOT EXISTS idx_menus_parent_id ON menus(parent_id);
+CREATE INDEX IF NOT EXISTS idx_menus_tree_path ON menus(tree_path COLLATE "C");
 CREATE INDEX IF NOT EXISTS idx_menus_type ON menus(type);
 CREATE INDEX IF NOT EXISTS idx_menus_visible ON menus(visible);
 CREATE INDEX IF NOT EXISTS idx_menus_sort_order ON menus(sort_order);
@@ -9,7 +9,7 @@
 CREATE TABLE IF NOT EXISTS menus (
     id BIGSERIAL PRIMARY KEY,
     parent_id BIGINT DEFAULT 0,
-    tree_path VARCHAR(255),
+    tree_path VARCHAR(255) COLLATE "C",
     name VARCHAR(64) NOT NULL,
     type SMALLINT NOT NULL, -- 0:目錄 1:選單 2:按鈕
     route_name VARCHAR(255),
@@ -0,0 +1,31 @@
+-- 告警記錄表 (MVP-2)，由 AlertBatchWriter 以 COPY / 多行 INSERT 批量寫入
+-- systems 表尚未建立，system_id 暫不加外鍵
+CREATE TABLE IF NOT EXISTS alert_history (
+    id BIGSERIAL PRIMARY KEY,
+    system_id BIGINT,
+    alert_type VARCHAR(50) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message TEXT,
+    source_data JSONB,
+    received_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    resolved_at TIMESTAMP,
+    status VARCHAR(20) DEFAULT 'NEW'
+);
+
+CREATE INDEX IF NOT EXISTS idx_alert_history_received_at ON alert_history (received_at);
+CREATE INDEX IF NOT EXISTS idx_alert_history_system_received ON alert_history (system_id, received_at);
+
+-- 告警接收API
+INSERT INTO api_resources (api_name, api_path, http_method, api_description, module_name, is_public) VALUES
+('上報告警', '/api/alerts', 'POST', '上報單筆告警', 'alert', FALSE),
+('批量上報告警', '/api/alerts/batch', 'POST', '以 NDJSON 批量上報告警', 'alert', FALSE)
+ON CONFLICT (api_path, http_method) DO NOTHING;
+
+INSERT INTO role_api_permissions (role_id, api_resource_id, created_by)
+SELECT r.id, ar.id, 1
+FROM roles r
+CROSS JOIN api_resources ar
+WHERE r.name = 'ADMIN'
+AND ar.module_name = 'alert'
+ON CONFLICT (role_id, api_resource_id) DO NOTHING;
@@ -0,0 +1,49 @@
+-- alert_history 改為按 received_at 範圍分區的分區表
+-- 主鍵需包含分區鍵，改為 (id, received_at)；分區由 AlertPartitionManager 預先建立並按保留期限卸離或刪除
+ALTER TABLE alert_history RENAME TO alert_history_unpartitioned;
+ALTER INDEX IF EXISTS idx_alert_history_received_at RENAME TO idx_alert_history_unpartitioned_received_at;
+ALTER INDEX IF EXISTS idx_alert_history_system_received RENAME TO idx_alert_history_unpartitioned_system_received;
+ALTER SEQUENCE alert_history_id_seq OWNED BY NONE;
+
+CREATE TABLE alert_history (
+    id BIGINT NOT NULL DEFAULT nextval('alert_history_id_seq'),
+    system_id BIGINT,
+    alert_type VARCHAR(50) NOT NULL,
+    severity VARCHAR(20) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    message TEXT,
+    source_data JSONB,
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    resolved_at TIMESTAMP,
+    status VARCHAR(20) DEFAULT 'NEW',
+    PRIMARY KEY (id, received_at)
+) PARTITION BY RANGE (received_at);
+
+ALTER SEQUENCE alert_history_id_seq OWNED BY alert_history.id;
+
+-- 分區索引建立在父表上，自動套用到每個分區
+CREATE INDEX idx_alert_history_received_at ON alert_history (received_at);
+CREATE INDEX idx_alert_history_system_received ON alert_history (system_id, received_at);
+
+-- 預設分區承接尚未建立分區的時間範圍；應保持為空，否則建立重疊的新分區會失敗
+CREATE TABLE alert_history_default PARTITION OF alert_history DEFAULT;
+
+INSERT INTO alert_history (id, system_id, alert_type, severity, title, message, source_data, received_at, resolved_at, status)
+SELECT id, system_id, alert_type, severity, title, message, source_data,
+       COALESCE(received_at, CURRENT_TIMESTAMP), resolved_at, status
+FROM alert_history_unpartitioned;
+
+DROP TABLE alert_history_unpartitioned;
+
+-- 告警查詢API
+INSERT INTO api_resources (api_name, api_path, http_method, api_description, module_name, is_public) VALUES
+('查詢告警', '/api/alerts', 'GET', '按時間範圍查詢告警列表', 'alert', FALSE)
+ON CONFLICT (api_path, http_method) DO NOTHING;
+
+INSERT INTO role_api_permissions (role_id, api_resource_id, created_by)
+SELECT r.id, ar.id, 1
+FROM roles r
+CROSS JOIN api_resources ar
+WHERE r.name = 'ADMIN'
+AND ar.module_name = 'alert'
+ON CONFLICT (role_id, api_resource_id) DO NOTHING;
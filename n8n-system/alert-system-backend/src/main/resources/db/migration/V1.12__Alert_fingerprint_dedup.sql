@@ -0,0 +1,9 @@
+-- 告警去重：同一指紋在去重窗口內只保留第一筆，重複次數併入 occurrence_count
+ALTER TABLE alert_history ADD COLUMN IF NOT EXISTS fingerprint VARCHAR(64);
+ALTER TABLE alert_history ADD COLUMN IF NOT EXISTS occurrence_count INTEGER NOT NULL DEFAULT 1;
+ALTER TABLE alert_history ADD COLUMN IF NOT EXISTS last_received_at TIMESTAMP;
+
+UPDATE alert_history SET last_received_at = received_at WHERE last_received_at IS NULL;
+
+-- 併入重複次數時以 (fingerprint, received_at) 定位第一筆，received_at 同時用於分區裁剪
+CREATE INDEX IF NOT EXISTS idx_alert_history_fingerprint ON alert_history (fingerprint, received_at);
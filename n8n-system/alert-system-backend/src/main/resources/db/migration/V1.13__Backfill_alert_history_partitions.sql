@@ -0,0 +1,35 @@
+-- 把預設分區中的歷史告警搬入按日分區，並移除預設分區
+-- 預設分區存在時無法 DETACH PARTITION ... CONCURRENTLY，且保留期限不會處理其中的資料；
+-- 移除後分區範圍外的告警由接收端拒絕，分區由 AlertPartitionManager 從保留期限起維護
+-- 按日建立分區，與 alert.partition.interval 預設值 DAILY 一致
+DO $$
+DECLARE
+    first_day DATE;
+    last_day DATE;
+    partition_day DATE;
+BEGIN
+    IF to_regclass('alert_history_default') IS NULL THEN
+        RETURN;
+    END IF;
+
+    SELECT min(received_at)::date, max(received_at)::date
+    INTO first_day, last_day
+    FROM alert_history_default;
+
+    -- 先卸離預設分區，建立與其資料重疊的分區才不會失敗
+    ALTER TABLE alert_history DETACH PARTITION alert_history_default;
+
+    IF first_day IS NOT NULL THEN
+        FOR partition_day IN
+            SELECT generate_series(first_day, GREATEST(last_day, CURRENT_DATE), INTERVAL '1 day')::date
+        LOOP
+            EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF alert_history FOR VALUES FROM (%L) TO (%L)',
+                           'alert_history_p' || to_char(partition_day, 'YYYYMMDD'),
+                           partition_day, partition_day + 1);
+        END LOOP;
+
+        INSERT INTO alert_history SELECT * FROM alert_history_default;
+    END IF;
+
+    DROP TABLE alert_history_default;
+END $$;
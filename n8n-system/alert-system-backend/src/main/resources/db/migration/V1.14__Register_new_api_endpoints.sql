@@ -0,0 +1,27 @@
+-- 新增控制器端點的API資源記錄；授權管線拒絕沒有對應記錄的端點
+-- 鍵集分頁API
+INSERT INTO api_resources (api_name, api_path, http_method, api_description, module_name, is_public) VALUES
+('API資源鍵集分頁', '/api/system/api-resources/scroll', 'GET', '按 (sort_order, id) 游標分頁查詢API資源', 'system', FALSE),
+('選單鍵集分頁', '/api/menus/scroll', 'GET', '按 (sort_order, id) 游標分頁查詢選單', 'system', FALSE)
+ON CONFLICT (api_path, http_method) DO NOTHING;
+
+-- 模組目錄、選單搜尋與子樹查詢API
+INSERT INTO api_resources (api_name, api_path, http_method, api_description, module_name, is_public) VALUES
+('API模組目錄', '/api/system/api-resources/modules/catalog', 'GET', '獲取各模組的API總數、啟用數與公開數', 'system', FALSE),
+('搜尋選單', '/api/menus/search', 'GET', '按關鍵字搜尋選單', 'system', FALSE),
+('選單子樹', '/api/menus/*/subtree', 'GET', '按物化路徑查詢選單子樹', 'system', FALSE)
+ON CONFLICT (api_path, http_method) DO NOTHING;
+
+INSERT INTO role_api_permissions (role_id, api_resource_id, created_by)
+SELECT r.id, ar.id, 1
+FROM roles r
+CROSS JOIN api_resources ar
+WHERE r.name = 'ADMIN'
+AND (ar.api_path, ar.http_method) IN (
+    ('/api/system/api-resources/scroll', 'GET'),
+    ('/api/menus/scroll', 'GET'),
+    ('/api/system/api-resources/modules/catalog', 'GET'),
+    ('/api/menus/search', 'GET'),
+    ('/api/menus/*/subtree', 'GET')
+)
+ON CONFLICT (role_id, api_resource_id) DO NOTHING;
@@ -0,0 +1,7 @@
+-- 子樹查詢改為顯式範圍條件 tree_path >= '/2/21/' AND tree_path < '/2/210'
+-- LIKE 綁定參數在通用執行計劃中無法取出前綴，varchar_pattern_ops 索引不會被使用；
+-- tree_path 只含數字與 '/'，改用 C 排序規則後範圍比較按位元組順序，可直接走 btree 索引
+ALTER TABLE menus ALTER COLUMN tree_path TYPE VARCHAR(255) COLLATE "C";
+
+DROP INDEX IF EXISTS idx_menus_tree_path;
+CREATE INDEX IF NOT EXISTS idx_menus_tree_path ON menus (tree_path COLLATE "C");
@@ -0,0 +1,19 @@
+-- 選單物化路徑 tree_path 格式為 /根ID/.../自身ID
+-- 回填既有選單的 tree_path
+WITH RECURSIVE menu_paths AS (
+    SELECT id, '/' || id AS path
+    FROM menus
+    WHERE parent_id = 0 OR parent_id IS NULL
+    UNION ALL
+    SELECT m.id, mp.path || '/' || m.id
+    FROM menus m
+    JOIN menu_paths mp ON m.parent_id = mp.id
+)
+UPDATE menus m
+SET tree_path = mp.path
+FROM menu_paths mp
+WHERE m.id = mp.id
+  AND m.tree_path IS DISTINCT FROM mp.path;
+
+-- 子樹查詢使用前綴範圍掃描 (tree_path LIKE '/2/21/%')
+CREATE INDEX IF NOT EXISTS idx_menus_tree_path ON menus (tree_path varchar_pattern_ops);
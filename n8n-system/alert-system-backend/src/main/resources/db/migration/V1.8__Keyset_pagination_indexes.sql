@@ -0,0 +1,16 @@
+-- 游標分頁按 (sort_order, id) 定位，sort_order 不可為 NULL 否則比較條件會漏掉資料
+UPDATE api_resources SET sort_order = 0 WHERE sort_order IS NULL;
+UPDATE menus SET sort_order = 0 WHERE sort_order IS NULL;
+
+ALTER TABLE api_resources ALTER COLUMN sort_order SET DEFAULT 0;
+ALTER TABLE api_resources ALTER COLUMN sort_order SET NOT NULL;
+ALTER TABLE menus ALTER COLUMN sort_order SET DEFAULT 0;
+ALTER TABLE menus ALTER COLUMN sort_order SET NOT NULL;
+
+-- 與 ORDER BY sort_order, id 一致的複合索引，深分頁直接從索引定位
+CREATE INDEX IF NOT EXISTS idx_api_resources_sort_order_id ON api_resources (sort_order, id);
+CREATE INDEX IF NOT EXISTS idx_menus_sort_order_id ON menus (sort_order, id);
+
+-- 更新統計信息，供估算總數使用
+ANALYZE api_resources;
+ANALYZE menus;
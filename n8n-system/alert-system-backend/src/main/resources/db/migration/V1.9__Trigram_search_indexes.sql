@@ -0,0 +1,6 @@
+-- 子字串搜尋 (ILIKE '%關鍵字%') 使用 pg_trgm GIN 索引，避免前置萬用字元導致全表掃描
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_api_resources_api_name_trgm ON api_resources USING gin (api_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_api_resources_api_path_trgm ON api_resources USING gin (api_path gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_menus_name_trgm ON menus USING gin (name gin_trgm_ops);
@@ -0,0 +1,117 @@
+package com.alertsystem.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * 告警批量寫入的重試與死信測試
+ * 資料庫連線前幾次取得失敗時應重試寫入；重試用盡後批次以可重新上報的 NDJSON 寫入死信目錄，並撤銷去重登記。
+ */
+class AlertBatchWriterTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @TempDir
+    Path deadLetterDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AlertDeduplicator deduplicator = mock(AlertDeduplicator.class);
+    private JdbcTemplate jdbcTemplate;
+    private AlertBatchWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource h2 = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(h2);
+        jdbcTemplate.execute("""
+                CREATE TABLE alert_history (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    system_id BIGINT, alert_type VARCHAR(50), severity VARCHAR(20), title VARCHAR(255),
+                    message VARCHAR(1000), source_data VARCHAR(1000), received_at TIMESTAMP, status VARCHAR(20),
+                    fingerprint VARCHAR(64), last_received_at TIMESTAMP)
+                """);
+        DelegatingDataSource flaky = new DelegatingDataSource(h2) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (failuresLeft.getAndDecrement() > 0) {
+                    throw new SQLException("資料庫暫時不可用");
+                }
+                return super.getConnection();
+            }
+        };
+        writer = new AlertBatchWriter(flaky, objectMapper, deduplicator, new SimpleMeterRegistry(), 100,
+                AlertBatchWriter.WriteMode.INSERT, 100, 50, MAX_ATTEMPTS, 10, deadLetterDir);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        failuresLeft.set(0);
+        writer.stop();
+    }
+
+    @Test
+    void retriesTransientFailures() throws Exception {
+        failuresLeft.set(MAX_ATTEMPTS - 1);
+
+        writer.writeBatch(List.of(alert("a"), alert("b")));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM alert_history", Long.class)).isEqualTo(2);
+        assertThat(deadLetterFiles()).isEmpty();
+        verify(deduplicator, never()).release(any());
+    }
+
+    @Test
+    void deadLettersBatchAfterLastAttempt() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+
+        List<AlertRecord> batch = List.of(alert("a"), alert("b"));
+        writer.writeBatch(batch);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM alert_history", Long.class)).isZero();
+        verify(deduplicator).release(batch);
+        List<Path> files = deadLetterFiles();
+        assertThat(files).hasSize(1);
+        List<String> lines = Files.readAllLines(files.get(0));
+        assertThat(lines).hasSize(2);
+        AlertPayload replay = objectMapper.readValue(lines.get(0), AlertPayload.class);
+        assertThat(replay.getFingerprint()).isEqualTo("a");
+        assertThat(replay.getSeverity()).isEqualTo("HIGH");
+        assertThat(replay.getReceivedAt()).isNotNull();
+    }
+
+    private List<Path> deadLetterFiles() throws Exception {
+        try (var files = Files.list(deadLetterDir)) {
+            return files.toList();
+        }
+    }
+
+    private static AlertRecord alert(String fingerprint) {
+        return new AlertRecord(1L, "cpu", "HIGH", "CPU 使用率過高", null, null, LocalDateTime.now(), fingerprint);
+    }
+}
@@ -0,0 +1,90 @@
+package com.alertsystem.alert;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 告警去重登記的撤銷測試
+ * 第一筆未能寫入時撤銷登記，同一窗口內重新上報的告警應再次准入；
+ * 不是本節點為該筆建立的登記不受影響；並發到達的第一筆只准入一筆。Redis 以空樁代替，去重退化為僅本節點。
+ */
+class AlertDeduplicatorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AlertDeduplicator deduplicator = new AlertDeduplicator(mock(StringRedisTemplate.class), null,
+            meterRegistry, true, Duration.ofMinutes(5), 4);
+
+    @Test
+    void releasedFingerprintIsAdmittedAgain() {
+        AlertRecord first = alert("disk-full", LocalDateTime.now());
+        assertThat(deduplicator.admit(first)).isTrue();
+        assertThat(deduplicator.admit(alert("disk-full", first.receivedAt()))).isFalse();
+
+        deduplicator.release(List.of(first));
+
+        assertThat(deduplicator.admit(alert("disk-full", first.receivedAt()))).isTrue();
+        // 撤銷前併入的重複次數沒有列可併入
+        assertThat(meterRegistry.counter("alert.dedup.lost").count()).isEqualTo(1);
+    }
+
+    @Test
+    void releaseIgnoresOtherClaims() {
+        LocalDateTime now = LocalDateTime.now();
+        AlertRecord first = alert("cpu-high", now);
+        assertThat(deduplicator.admit(first)).isTrue();
+
+        // 重複的那一筆不是登記的擁有者，撤銷它不影響第一筆的登記
+        deduplicator.release(List.of(alert("cpu-high", now.plusNanos(1000))));
+
+        assertThat(deduplicator.admit(alert("cpu-high", now))).isFalse();
+    }
+
+    @Test
+    void concurrentFirstAlertsAdmitExactlyOneOwner() throws Exception {
+        int threads = 8;
+        LocalDateTime now = LocalDateTime.now();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 50; round++) {
+                String fingerprint = "race-" + round;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return deduplicator.admit(alert(fingerprint, now));
+                    }));
+                }
+                start.countDown();
+                int admitted = 0;
+                for (Future<Boolean> result : results) {
+                    admitted += result.get() ? 1 : 0;
+                }
+                assertThat(admitted).isEqualTo(1);
+
+                // 准入者的登記保留在分片中，撤銷後可再次准入
+                deduplicator.release(List.of(alert(fingerprint, now)));
+                assertThat(deduplicator.admit(alert(fingerprint, now))).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static AlertRecord alert(String fingerprint, LocalDateTime receivedAt) {
+        return new AlertRecord(1L, "cpu", "HIGH", "CPU 使用率過高", null, null, receivedAt, fingerprint);
+    }
+}
@@ -0,0 +1,68 @@
+package com.alertsystem.alert;
+
+import com.alertsystem.dto.common.ApiResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 寫入佇列已滿時應返回 503 及 Retry-After，驗證失敗仍返回 400
+ */
+class AlertIngestControllerTest {
+
+    private final AlertIngestService ingestService = mock(AlertIngestService.class);
+    private AlertIngestController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new AlertIngestController(ingestService);
+        ReflectionTestUtils.setField(controller, "retryAfterSeconds", 7L);
+    }
+
+    @Test
+    void queueFullReturnsServiceUnavailable() {
+        when(ingestService.ingest(any())).thenReturn(AlertIngestResult.unavailable(1));
+
+        ResponseEntity<ApiResponse<AlertIngestResult>> response = controller.ingest(new AlertPayload());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+    }
+
+    @Test
+    void invalidPayloadStaysBadRequest() {
+        when(ingestService.ingest(any())).thenReturn(AlertIngestResult.rejected(1, "告警類型不能為空"));
+
+        ResponseEntity<ApiResponse<AlertIngestResult>> response = controller.ingest(new AlertPayload());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.RETRY_AFTER)).isFalse();
+    }
+
+    @Test
+    void batchWithUnavailableLinesReturnsServiceUnavailable() throws Exception {
+        InputStream body = new ByteArrayInputStream(new byte[0]);
+        when(ingestService.ingestNdjson(body)).thenReturn(AlertIngestResponse.of(List.of(
+                AlertIngestResult.accepted(1), AlertIngestResult.unavailable(2))));
+
+        ResponseEntity<ApiResponse<AlertIngestResponse>> response = controller.ingestBatch(body);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("7");
+        assertThat(response.getBody().getData().getAccepted()).isEqualTo(1);
+        assertThat(response.getBody().getData().getUnavailable()).isEqualTo(1);
+        assertThat(response.getBody().getData().getRejected()).isZero();
+    }
+}
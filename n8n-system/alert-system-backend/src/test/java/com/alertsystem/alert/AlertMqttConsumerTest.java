@@ -0,0 +1,219 @@
+package com.alertsystem.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hivemq.embedded.EmbeddedHiveMQ;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.eclipse.paho.mqttv5.client.MqttAsyncClient;
+import org.eclipse.paho.mqttv5.client.MqttClient;
+import org.eclipse.paho.mqttv5.client.persist.MemoryPersistence;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+/**
+ * MQTT 告警訂閱者與內嵌 MQTT 5 代理的整合測試
+ * 資料庫不可用時訊息不得確認；停止後以相同 clientId 重新連線，代理應補投未確認的訊息並寫入，
+ * 寫入提交後才確認，之後再重新連線不應收到任何補投。
+ */
+class AlertMqttConsumerTest {
+
+    private static final String CLIENT_ID = "alert-backend-test";
+    private static final String TOPIC = "alerts/host-1";
+    private static final int MESSAGES = 5;
+
+    @TempDir
+    Path brokerDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private final AlertPartitionManager partitionManager = new AlertPartitionManager(null,
+            AlertPartitionManager.Interval.DAILY, 7, Duration.ofDays(90), AlertPartitionManager.RetentionAction.DETACH);
+    private final AtomicBoolean databaseDown = new AtomicBoolean();
+    private final List<AlertMqttConsumer> consumers = new ArrayList<>();
+
+    private EmbeddedHiveMQ broker;
+    private String serverUri;
+    private DelegatingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private AlertDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int port = freePort();
+        serverUri = "tcp://127.0.0.1:" + port;
+        Path config = Files.createDirectories(brokerDir.resolve("conf"));
+        Files.writeString(config.resolve("config.xml"), """
+                <hivemq>
+                    <listeners>
+                        <tcp-listener>
+                            <port>%d</port>
+                            <bind-address>127.0.0.1</bind-address>
+                        </tcp-listener>
+                    </listeners>
+                    <anonymous-usage-statistics>
+                        <enabled>false</enabled>
+                    </anonymous-usage-statistics>
+                </hivemq>
+                """.formatted(port));
+        broker = EmbeddedHiveMQ.builder()
+                .withConfigurationFolder(config)
+                .withDataFolder(Files.createDirectories(brokerDir.resolve("data")))
+                .withExtensionsFolder(Files.createDirectories(brokerDir.resolve("extensions")))
+                .build();
+        broker.start().join();
+
+        DriverManagerDataSource h2 = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(h2);
+        jdbcTemplate.execute("""
+                CREATE TABLE alert_history (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    system_id BIGINT, alert_type VARCHAR(50), severity VARCHAR(20), title VARCHAR(255),
+                    message VARCHAR(1000), source_data VARCHAR(1000), received_at TIMESTAMP, status VARCHAR(20),
+                    fingerprint VARCHAR(64), last_received_at TIMESTAMP, occurrence_count INT DEFAULT 1)
+                """);
+        dataSource = new DelegatingDataSource(h2) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (databaseDown.get()) {
+                    throw new SQLException("資料庫暫時不可用");
+                }
+                return super.getConnection();
+            }
+        };
+        // 去重登記跨重啟保留，相當於登記仍在 Redis 中；放棄的批次需撤銷登記，補投的訊息才會寫入
+        deduplicator = new AlertDeduplicator(mock(StringRedisTemplate.class), jdbcTemplate,
+                new SimpleMeterRegistry(), true, Duration.ofMinutes(5), 4);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AlertMqttConsumer consumer : consumers) {
+            consumer.stop();
+        }
+        broker.stop().join();
+        broker.close();
+    }
+
+    @Test
+    void acknowledgesOnlyAfterWriteAndRedeliversAfterRestart() throws Exception {
+        databaseDown.set(true);
+        MeterRegistry firstRegistry = new SimpleMeterRegistry();
+        AlertMqttConsumer first = startConsumer(firstRegistry);
+        publish(MESSAGES);
+
+        // 代理對共享訂閱逐筆投遞，前一筆未確認前不會推送下一筆
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            assertThat(firstRegistry.counter("alert.mqtt.received").count()).isGreaterThanOrEqualTo(1);
+            assertThat(firstRegistry.counter("alert.mqtt.write.retry").count()).isGreaterThanOrEqualTo(2);
+        });
+        assertThat(rowCount()).isZero();
+
+        // 寫入一直失敗時停止：未確認的訊息留在代理的會話中
+        first.stop();
+        consumers.remove(first);
+        databaseDown.set(false);
+
+        MeterRegistry secondRegistry = new SimpleMeterRegistry();
+        AlertMqttConsumer second = startConsumer(secondRegistry);
+        await().atMost(Duration.ofSeconds(15)).untilAsserted(() -> assertThat(rowCount()).isEqualTo(MESSAGES));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT fingerprint) FROM alert_history", Long.class))
+                .isEqualTo(MESSAGES);
+
+        // 寫入後已確認：再次以相同 clientId 連線不應收到補投
+        await().during(Duration.ofMillis(500)).atMost(Duration.ofSeconds(5))
+                .until(() -> secondRegistry.counter("alert.mqtt.received").count() == MESSAGES);
+        second.stop();
+        consumers.remove(second);
+
+        MeterRegistry thirdRegistry = new SimpleMeterRegistry();
+        startConsumer(thirdRegistry);
+        await().during(Duration.ofSeconds(2)).atMost(Duration.ofSeconds(5))
+                .until(() -> thirdRegistry.counter("alert.mqtt.received").count() == 0);
+        assertThat(rowCount()).isEqualTo(MESSAGES);
+    }
+
+    /**
+     * 每次啟動都使用新的寫入與接收元件，模擬節點重啟；去重器沿用同一個
+     */
+    private AlertMqttConsumer startConsumer(MeterRegistry meterRegistry) throws Exception {
+        AlertBatchWriter batchWriter = new AlertBatchWriter(dataSource, objectMapper, deduplicator, meterRegistry, 100,
+                AlertBatchWriter.WriteMode.INSERT, 100, 50, 1, 10, brokerDir.resolve("dead-letter"));
+        AlertIngestService ingestService = new AlertIngestService(new AlertNdjsonParser(objectMapper, 100, 65536),
+                batchWriter, deduplicator, partitionManager, validator, objectMapper, meterRegistry);
+        AlertMqttConsumer consumer = new AlertMqttConsumer(ingestService, batchWriter, deduplicator, objectMapper,
+                meterRegistry, serverUri, CLIENT_ID, "", "", new String[]{"alerts/#"}, "test", 10, 300, 2, 10, 50);
+        consumers.add(consumer);
+        consumer.start();
+        awaitSubscribed(consumer);
+        return consumer;
+    }
+
+    /**
+     * 訂閱在連線完成的回調中非同步送出，連線後稍候讓代理處理訂閱請求
+     */
+    private static void awaitSubscribed(AlertMqttConsumer consumer) throws InterruptedException {
+        await().atMost(Duration.ofSeconds(10)).until(() ->
+                ((MqttAsyncClient) ReflectionTestUtils.getField(consumer, "client")).isConnected());
+        Thread.sleep(1000);
+    }
+
+    private void publish(int count) throws Exception {
+        MqttClient publisher = new MqttClient(serverUri, "publisher-" + UUID.randomUUID(), new MemoryPersistence());
+        try {
+            publisher.connect();
+            for (int i = 0; i < count; i++) {
+                String payload = objectMapper.writeValueAsString(Map.of(
+                        "systemId", 1,
+                        "alertType", "cpu",
+                        "severity", "HIGH",
+                        "title", "CPU 使用率過高 " + i,
+                        "fingerprint", "fp-" + i,
+                        "receivedAt", LocalDateTime.now().toString()));
+                publisher.publish(TOPIC, payload.getBytes(StandardCharsets.UTF_8), 1, false);
+            }
+        } finally {
+            publisher.disconnect();
+            publisher.close();
+        }
+    }
+
+    private long rowCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM alert_history", Long.class);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.alertsystem.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 分區範圍測試
+ * 維護的分區從包含保留期限的分區起，到預先建立的最後一個分區止；接收範圍與之一致。
+ */
+class AlertPartitionManagerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    @Test
+    void dailyRangeCoversRetentionThroughPrecreate() {
+        AlertPartitionManager manager = manager(AlertPartitionManager.Interval.DAILY);
+
+        assertThat(manager.firstRetained(TODAY)).isEqualTo(LocalDate.of(2024, 2, 14));
+        assertThat(manager.lastPrecreated(TODAY)).isEqualTo(LocalDate.of(2024, 3, 23));
+    }
+
+    @Test
+    void monthlyRangeIsFlooredToMonths() {
+        AlertPartitionManager manager = manager(AlertPartitionManager.Interval.MONTHLY);
+
+        assertThat(manager.firstRetained(TODAY)).isEqualTo(LocalDate.of(2024, 2, 1));
+        assertThat(manager.lastPrecreated(TODAY)).isEqualTo(LocalDate.of(2024, 11, 1));
+    }
+
+    @Test
+    void acceptsOnlyTimesWithinMaintainedPartitions() {
+        AlertPartitionManager manager = manager(AlertPartitionManager.Interval.DAILY);
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(manager.accepts(now)).isTrue();
+        assertThat(manager.accepts(now.minusDays(29))).isTrue();
+        assertThat(manager.accepts(now.plusDays(7))).isTrue();
+        assertThat(manager.accepts(now.minusDays(31))).isFalse();
+        assertThat(manager.accepts(now.plusDays(8))).isFalse();
+    }
+
+    private static AlertPartitionManager manager(AlertPartitionManager.Interval interval) {
+        return new AlertPartitionManager(null, interval, 7, Duration.ofDays(30),
+                AlertPartitionManager.RetentionAction.DETACH);
+    }
+}
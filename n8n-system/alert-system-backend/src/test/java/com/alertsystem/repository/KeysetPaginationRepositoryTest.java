@@ -0,0 +1,118 @@
+package com.alertsystem.repository;
+
+import com.alertsystem.entity.ApiResource;
+import com.alertsystem.entity.Menu;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 鍵集分頁查詢測試
+ * 相同 sortOrder 的資料以 id 決定先後，逐頁翻完應不重複、不遺漏且順序與全量排序一致。
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.hbm2ddl.default_constraint_mode=NO_CONSTRAINT",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class KeysetPaginationRepositoryTest {
+
+    private static final int ROWS = 25;
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private ApiResourceRepository apiResourceRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            // 每三筆共用一個 sortOrder，頁尾常落在相同 sortOrder 之間
+            int sortOrder = (ROWS - i) / 3;
+            Menu menu = Menu.builder()
+                .parentId(0L)
+                .name("menu-" + i)
+                .type(1)
+                .sortOrder(sortOrder)
+                .build();
+            menu.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(menu);
+
+            ApiResource api = new ApiResource();
+            api.setApiName("api-" + i);
+            api.setApiPath("/module/resource" + i);
+            api.setHttpMethod("GET");
+            api.setModuleName(i % 2 == 0 ? "even" : "odd");
+            api.setSortOrder(sortOrder);
+            entityManager.persist(api);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void scrollMenusVisitsEveryRowOnceInOrder() {
+        List<Menu> visited = new ArrayList<>();
+        List<Menu> page = menuRepository.findMenusFirstPage(PageRequest.of(0, PAGE_SIZE));
+        while (!page.isEmpty()) {
+            visited.addAll(page);
+            Menu last = page.get(page.size() - 1);
+            page = menuRepository.findMenusAfter(last.getSortOrder(), last.getId(), PageRequest.of(0, PAGE_SIZE));
+        }
+
+        List<Menu> expected = new ArrayList<>(menuRepository.findAll());
+        expected.sort(Comparator.comparing(Menu::getSortOrder).thenComparing(Menu::getId));
+        assertThat(visited).extracting(Menu::getId)
+            .containsExactlyElementsOf(expected.stream().map(Menu::getId).toList());
+    }
+
+    @Test
+    void scrollApiResourcesAppliesFiltersOnEveryPage() {
+        List<ApiResource> visited = new ArrayList<>();
+        List<ApiResource> page = apiResourceRepository.findApiResourcesFirstPage(
+            "even", null, null, PageRequest.of(0, PAGE_SIZE));
+        while (!page.isEmpty()) {
+            visited.addAll(page);
+            ApiResource last = page.get(page.size() - 1);
+            page = apiResourceRepository.findApiResourcesAfter(
+                "even", null, null, last.getSortOrder(), last.getId(), PageRequest.of(0, PAGE_SIZE));
+        }
+
+        List<Long> expected = apiResourceRepository.findAll().stream()
+            .filter(api -> "even".equals(api.getModuleName()))
+            .sorted(Comparator.comparing(ApiResource::getSortOrder).thenComparing(ApiResource::getId))
+            .map(ApiResource::getId)
+            .toList();
+        assertThat(visited).extracting(ApiResource::getId).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void scrollKeywordIgnoresCase() {
+        List<ApiResource> upper = apiResourceRepository.findApiResourcesFirstPage(
+            null, null, "RESOURCE1", PageRequest.of(0, ROWS));
+        List<ApiResource> lower = apiResourceRepository.findApiResourcesFirstPage(
+            null, null, "resource1", PageRequest.of(0, ROWS));
+
+        // resource1, resource10 ~ resource19
+        assertThat(upper).hasSize(11);
+        assertThat(upper).extracting(ApiResource::getId)
+            .containsExactlyElementsOf(lower.stream().map(ApiResource::getId).toList());
+        assertThat(apiResourceRepository.countApiResourcesWithConditions(null, null, "Resource1")).isEqualTo(11);
+    }
+}
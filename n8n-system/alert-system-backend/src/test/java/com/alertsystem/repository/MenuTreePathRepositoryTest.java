@@ -0,0 +1,66 @@
+package com.alertsystem.repository;
+
+import com.alertsystem.entity.Menu;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 物化路徑範圍查詢測試
+ * 子樹範圍 [path + '/', path + '0') 只包含真正的後代，不包含 ID 前綴相同的兄弟節點（/1/2 與 /1/20）。
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.hbm2ddl.default_constraint_mode=NO_CONSTRAINT",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class MenuTreePathRepositoryTest {
+
+    @Autowired
+    private MenuRepository menuRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        for (String treePath : new String[]{"/1", "/1/2", "/1/2/3", "/1/2/30", "/1/20", "/1/20/4", "/10"}) {
+            Menu menu = Menu.builder()
+                .parentId(0L)
+                .treePath(treePath)
+                .name("menu" + treePath.replace('/', '-'))
+                .type(1)
+                .sortOrder(0)
+                .build();
+            menu.setCreatedAt(LocalDateTime.now());
+            entityManager.persist(menu);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findSubtreeExcludesSiblingsSharingIdPrefix() {
+        assertThat(menuRepository.findSubtree("/1/2")).extracting(Menu::getTreePath)
+            .containsExactlyInAnyOrder("/1/2", "/1/2/3", "/1/2/30");
+        assertThat(menuRepository.findSubtree("/1")).extracting(Menu::getTreePath)
+            .containsExactlyInAnyOrder("/1", "/1/2", "/1/2/3", "/1/2/30", "/1/20", "/1/20/4");
+    }
+
+    @Test
+    void repathDescendantsRewritesOnlyDescendants() {
+        int updated = menuRepository.repathDescendants("/1/2", "/10/2");
+        entityManager.clear();
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(menuRepository.findAll()).extracting(Menu::getTreePath)
+            .containsExactlyInAnyOrder("/1", "/1/2", "/10/2/3", "/10/2/30", "/1/20", "/1/20/4", "/10");
+    }
+}
@@ -0,0 +1,183 @@
+package com.alertsystem.repository;
+
+import com.alertsystem.dto.request.RoleApiPermissionRequest;
+import com.alertsystem.entity.ApiResource;
+import com.alertsystem.entity.Menu;
+import com.alertsystem.entity.Role;
+import com.alertsystem.event.PermissionChangedEvent;
+import com.alertsystem.search.SubstringSearchEngine;
+import com.alertsystem.service.ApiResourceService;
+import com.alertsystem.service.MenuTreeCacheService;
+import com.alertsystem.service.impl.MenuServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 角色授權關聯差異寫入測試
+ * H2 走逐列批次寫入：新增、移除與無變化的差異各自回報正確筆數，
+ * 角色選單與角色API權限只有實際變化時才發布權限變更事件。
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.hbm2ddl.default_constraint_mode=NO_CONSTRAINT",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@Import({RoleAssignmentJdbcRepository.class, MenuServiceImpl.class, ApiResourceService.class})
+@RecordApplicationEvents
+class RoleAssignmentJdbcRepositoryTest {
+
+    @Autowired
+    private RoleAssignmentJdbcRepository roleAssignmentRepository;
+
+    @Autowired
+    private RoleApiPermissionRepository roleApiPermissionRepository;
+
+    @Autowired
+    private MenuServiceImpl menuService;
+
+    @Autowired
+    private ApiResourceService apiResourceService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockBean
+    private TableStatisticsRepository tableStatisticsRepository;
+
+    @MockBean
+    private MenuTreeCacheService menuTreeCacheService;
+
+    @MockBean
+    private SubstringSearchEngine searchEngine;
+
+    private Long roleId;
+    private List<Long> menuIds;
+    private List<Long> apiResourceIds;
+
+    @BeforeEach
+    void setUp() {
+        Role role = Role.builder().name("OPERATOR").build();
+        role.setCreatedAt(LocalDateTime.now());
+        roleId = entityManager.persist(role).getId();
+
+        menuIds = List.of(persistMenu("alerts"), persistMenu("rules"), persistMenu("users"));
+        apiResourceIds = List.of(persistApiResource("/api/alerts"), persistApiResource("/api/rules"),
+                persistApiResource("/api/users"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void menuDiffsReportAffectedRows() {
+        assertThat(roleAssignmentRepository.insertRoleMenus(roleId, menuIds.subList(0, 2))).isEqualTo(2);
+        // 已存在的關聯被忽略
+        assertThat(roleAssignmentRepository.insertRoleMenus(roleId, menuIds)).isEqualTo(1);
+        assertThat(roleAssignmentRepository.deleteRoleMenus(roleId, List.of(menuIds.get(0), -1L))).isEqualTo(1);
+        assertThat(roleAssignmentRepository.deleteRoleMenus(roleId, List.of())).isZero();
+
+        assertThat(roleAssignmentRepository.findMenuIdsByRoleId(roleId))
+            .containsExactlyInAnyOrderElementsOf(menuIds.subList(1, 3));
+    }
+
+    @Test
+    void apiPermissionDiffsReportAffectedRows() {
+        assertThat(roleAssignmentRepository.insertRoleApiPermissions(roleId, apiResourceIds.subList(0, 2), 1L))
+            .isEqualTo(2);
+        assertThat(roleAssignmentRepository.insertRoleApiPermissions(roleId, apiResourceIds, null)).isEqualTo(1);
+        assertThat(roleAssignmentRepository.deleteRoleApiPermissions(roleId, List.of(apiResourceIds.get(0))))
+            .isEqualTo(1);
+        assertThat(roleAssignmentRepository.deleteRoleApiPermissions(roleId, List.of(-1L))).isZero();
+
+        assertThat(roleApiPermissionRepository.findApiResourceIdsByRoleId(roleId))
+            .containsExactlyInAnyOrderElementsOf(apiResourceIds.subList(1, 3));
+    }
+
+    @Test
+    void assignMenusPublishesOnlyWhenChanged() {
+        menuService.assignMenusToRole(roleId, menuIds.subList(0, 2));
+        assertThat(roleMenuEvents()).isEqualTo(1);
+
+        // 無變化
+        menuService.assignMenusToRole(roleId, menuIds.subList(0, 2));
+        assertThat(roleMenuEvents()).isEqualTo(1);
+
+        // 同時新增與移除
+        menuService.assignMenusToRole(roleId, menuIds.subList(1, 3));
+        assertThat(roleMenuEvents()).isEqualTo(2);
+        assertThat(roleAssignmentRepository.findMenuIdsByRoleId(roleId))
+            .containsExactlyInAnyOrderElementsOf(menuIds.subList(1, 3));
+
+        menuService.assignMenusToRole(roleId, List.of());
+        assertThat(roleMenuEvents()).isEqualTo(3);
+        assertThat(roleAssignmentRepository.findMenuIdsByRoleId(roleId)).isEmpty();
+    }
+
+    @Test
+    void assignApiPermissionsPublishesOnlyWhenChanged() {
+        apiResourceService.assignApiPermissionsToRole(roleId, request(apiResourceIds.subList(0, 2)), 1L);
+        assertThat(roleApiEvents()).isEqualTo(1);
+
+        apiResourceService.assignApiPermissionsToRole(roleId, request(apiResourceIds.subList(0, 2)), 1L);
+        assertThat(roleApiEvents()).isEqualTo(1);
+
+        apiResourceService.assignApiPermissionsToRole(roleId, request(apiResourceIds.subList(1, 3)), 1L);
+        assertThat(roleApiEvents()).isEqualTo(2);
+        assertThat(Set.copyOf(roleApiPermissionRepository.findApiResourceIdsByRoleId(roleId)))
+            .isEqualTo(Set.copyOf(apiResourceIds.subList(1, 3)));
+    }
+
+    private long roleMenuEvents() {
+        return events.stream(PermissionChangedEvent.class)
+            .filter(event -> event.getChangeType() == PermissionChangedEvent.ChangeType.ROLE_MENU)
+            .count();
+    }
+
+    private long roleApiEvents() {
+        return events.stream(PermissionChangedEvent.class)
+            .filter(event -> event.getChangeType() == PermissionChangedEvent.ChangeType.ROLE_API)
+            .count();
+    }
+
+    private Long persistMenu(String name) {
+        Menu menu = Menu.builder()
+            .parentId(0L)
+            .name(name)
+            .type(1)
+            .sortOrder(0)
+            .build();
+        menu.setCreatedAt(LocalDateTime.now());
+        return entityManager.persist(menu).getId();
+    }
+
+    private Long persistApiResource(String apiPath) {
+        ApiResource apiResource = new ApiResource();
+        apiResource.setApiName(apiPath);
+        apiResource.setApiPath(apiPath);
+        apiResource.setHttpMethod("GET");
+        apiResource.setModuleName("test");
+        return entityManager.persist(apiResource).getId();
+    }
+
+    private static RoleApiPermissionRequest request(List<Long> apiResourceIds) {
+        RoleApiPermissionRequest request = new RoleApiPermissionRequest();
+        request.setApiResourceIds(apiResourceIds);
+        return request;
+    }
+}
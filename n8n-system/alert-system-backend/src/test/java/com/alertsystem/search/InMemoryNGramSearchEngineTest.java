@@ -0,0 +1,72 @@
+package com.alertsystem.search;
+
+import com.alertsystem.entity.ApiResource;
+import com.alertsystem.repository.ApiResourceRepository;
+import com.alertsystem.repository.MenuRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 記憶體搜尋引擎的篩選與分頁測試
+ * 模組與啟用狀態在分頁前篩選，總數為篩選後的筆數。
+ */
+class InMemoryNGramSearchEngineTest {
+
+    private InMemoryNGramSearchEngine searchEngine;
+
+    @BeforeEach
+    void setUp() {
+        List<ApiResource> apiResources = new ArrayList<>();
+        for (long id = 1; id <= 12; id++) {
+            ApiResource api = new ApiResource();
+            api.setId(id);
+            api.setApiName("User Query " + id);
+            api.setApiPath("/users/query" + id);
+            api.setModuleName(id % 2 == 0 ? "user" : "report");
+            api.setIsEnabled(id % 3 != 0);
+            apiResources.add(api);
+        }
+        ApiResourceRepository apiResourceRepository = mock(ApiResourceRepository.class);
+        when(apiResourceRepository.findAll(any(Sort.class))).thenReturn(apiResources);
+        searchEngine = new InMemoryNGramSearchEngine(apiResourceRepository, mock(MenuRepository.class));
+    }
+
+    @Test
+    void filtersBeforePaging() {
+        Page<Long> first = searchEngine.searchApiResources("user", "user", true, PageRequest.of(0, 2));
+        Page<Long> second = searchEngine.searchApiResources("user", "user", true, PageRequest.of(1, 2));
+
+        // 偶數且不被 3 整除：2, 4, 8, 10
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(first.getContent()).hasSize(2);
+        assertThat(second.getContent()).hasSize(2);
+        assertThat(List.of(first.getContent(), second.getContent()).stream().flatMap(List::stream))
+            .containsExactlyInAnyOrder(2L, 4L, 8L, 10L);
+    }
+
+    @Test
+    void matchesKeywordIgnoringCase() {
+        Page<Long> page = searchEngine.searchApiResources("QUERY", null, null, PageRequest.of(0, 20));
+
+        assertThat(page.getTotalElements()).isEqualTo(12);
+    }
+
+    @Test
+    void pageBeyondResultsKeepsTotal() {
+        Page<Long> page = searchEngine.searchApiResources("user", "report", null, PageRequest.of(5, 10));
+
+        assertThat(page.getContent()).isEmpty();
+        assertThat(page.getTotalElements()).isEqualTo(6);
+    }
+}
@@ -0,0 +1,221 @@
+package com.alertsystem.security;
+
+import com.alertsystem.entity.ApiResource;
+import com.alertsystem.entity.RoleApiPermission;
+import com.alertsystem.repository.ApiResourceRepository;
+import com.alertsystem.repository.RoleApiPermissionRepository;
+import com.alertsystem.service.DynamicPermissionService;
+import com.alertsystem.service.PermissionSyncService;
+import com.alertsystem.service.UserStatusService;
+import com.alertsystem.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 認證授權管線開銷基準測試
+ * legacyAuthorization 重現合併前兩個過濾器的授權步驟：移除 context path、判斷公開API，
+ * 再由 hasPermission 重新移除 context path、再次判斷公開API後檢查角色權限；
+ * pipelineAuthorization 為合併後的單次 authorize；
+ * pipelineFilter 測量整個過濾器（含 JWT 解析與主體構建）每個請求的開銷。
+ * Redis 與資料庫依賴以樁代替。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthorizationPipelineBenchmark {
+
+    private static final String SECRET = "YWxlcnQtc3lzdGVtLXNlY3JldC1rZXktZm9yLWp3dC10b2tlbi1nZW5lcmF0aW9u";
+    private static final String CONTEXT_PATH = "/api";
+    private static final int MODULES = 20;
+    private static final int APIS_PER_MODULE = 10;
+
+    private DynamicPermissionService permissionService;
+    private AuthorizationPipelineFilter filter;
+    private Authentication authentication;
+    private String token;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        List<ApiResource> apiResources = new ArrayList<>();
+        List<RoleApiPermission> permissions = new ArrayList<>();
+        long id = 0;
+        for (int module = 0; module < MODULES; module++) {
+            for (int api = 0; api < APIS_PER_MODULE; api++) {
+                ApiResource resource = new ApiResource();
+                resource.setId(++id);
+                resource.setApiPath("/module" + module + "/resource" + api + "/{id}");
+                resource.setHttpMethod("GET");
+                resource.setIsEnabled(true);
+                resource.setIsPublic(false);
+                apiResources.add(resource);
+
+                RoleApiPermission permission = new RoleApiPermission();
+                permission.setRoleId(module % 2 == 0 ? 1L : 2L);
+                permission.setApiResourceId(id);
+                permissions.add(permission);
+            }
+        }
+        ApiResourceRepository apiResourceRepository = mock(ApiResourceRepository.class);
+        when(apiResourceRepository.findByIsEnabledTrueOrderBySortOrder()).thenReturn(apiResources);
+        RoleApiPermissionRepository roleApiPermissionRepository = mock(RoleApiPermissionRepository.class);
+        when(roleApiPermissionRepository.findAll()).thenReturn(permissions);
+
+        // 無處理器映射時以原始路徑匹配前綴樹；以普通實作代替 Mockito 樁，避免每次調用記錄開銷計入結果
+        ObjectProvider<RequestMappingHandlerMapping> noHandlerMapping = new ObjectProvider<>() {
+            @Override
+            public RequestMappingHandlerMapping getObject(Object... args) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public RequestMappingHandlerMapping getIfAvailable() {
+                return null;
+            }
+
+            @Override
+            public RequestMappingHandlerMapping getIfUnique() {
+                return null;
+            }
+
+            @Override
+            public RequestMappingHandlerMapping getObject() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        permissionService = new DynamicPermissionService(apiResourceRepository, roleApiPermissionRepository,
+                new HandlerEndpointRegistry(noHandlerMapping), 10000);
+        permissionService.reloadPermissions();
+
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 604800000L);
+        jwtUtil.init();
+        token = jwtUtil.generateToken("benchmark-user", Map.of(
+                JwtUtil.CLAIM_USER_ID, 1L,
+                JwtUtil.CLAIM_ROLE_IDS, List.of(1L),
+                JwtUtil.CLAIM_AUTHORITIES, List.of("ROLE_ADMIN"),
+                JwtUtil.CLAIM_PERMISSION_VERSION, Map.of("*", 0L, "1", 0L)));
+
+        // 過濾器熱路徑上的依賴以覆寫子類代替，Mockito 每次調用的堆疊遍歷會掩蓋過濾器本身的開銷
+        TokenRevocationService revocationService = new TokenRevocationService(null, null, jwtUtil) {
+            @Override
+            public boolean isRevoked(String jwt, Claims claims) {
+                return false;
+            }
+        };
+        PermissionSyncService permissionSyncService = new PermissionSyncService(null, null, null, null, null, null, null) {
+            @Override
+            public boolean isPrincipalCurrent(Collection<Long> roleIds, Map<?, ?> tokenGenerations) {
+                return true;
+            }
+        };
+        UserStatusService userStatusService = new UserStatusService(null) {
+            @Override
+            public boolean isPossiblyInactive(Long userId) {
+                return false;
+            }
+        };
+
+        filter = new AuthorizationPipelineFilter(jwtUtil, mock(UserDetailsService.class), revocationService,
+                permissionSyncService, userStatusService, permissionService, new JwtAuthenticationEntryPoint(),
+                new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+
+        UserPrincipal principal = UserPrincipal.builder()
+                .id(1L)
+                .username("benchmark-user")
+                .roleIds(Set.of(1L))
+                .authorities(List.of())
+                .enabled(true)
+                .build();
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Benchmark
+    public boolean legacyAuthorization() {
+        MockHttpServletRequest request = newRequest();
+        String requestPath = stripContextPath(request);
+        if (permissionService.isPublicApi(requestPath, request.getMethod())) {
+            return true;
+        }
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        String path = stripContextPath(request);
+        if (permissionService.isPublicApi(path, request.getMethod())) {
+            return true;
+        }
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        return permissionService.checkUserPermission(principal.getRoleIds(), path, request.getMethod());
+    }
+
+    @Benchmark
+    public boolean pipelineAuthorization() {
+        MockHttpServletRequest request = newRequest();
+        return permissionService.authorize(request, stripContextPath(request), authentication).isGranted();
+    }
+
+    @Benchmark
+    public int pipelineFilter() throws Exception {
+        MockHttpServletRequest request = newRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest newRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", CONTEXT_PATH + "/module4/resource7/42");
+        request.setContextPath(CONTEXT_PATH);
+        return request;
+    }
+
+    private static String stripContextPath(MockHttpServletRequest request) {
+        String requestPath = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        if (contextPath != null && !contextPath.isEmpty() && requestPath.startsWith(contextPath)) {
+            requestPath = requestPath.substring(contextPath.length());
+        }
+        return requestPath;
+    }
+}
@@ -0,0 +1,59 @@
+package com.alertsystem.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 時間分桶撤銷布隆過濾器測試
+ * 已加入的 token 不會漏報；桶內 token 全部過期後整桶丟棄。
+ */
+class RevocationBloomFilterTest {
+
+    private static final long BUCKET_MILLIS = 1000;
+
+    @Test
+    void addedTokensAreNeverMissed() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(BUCKET_MILLIS, 100, 0.01);
+        for (int i = 0; i < 100; i++) {
+            filter.add("token-" + i, 5000 + i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(filter.mightContain("token-" + i, 5000 + i)).isTrue();
+        }
+        // 過期時間落在沒有記錄的桶時直接判定未撤銷
+        assertThat(filter.mightContain("token-0", 9000)).isFalse();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearConfiguredRate() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(BUCKET_MILLIS, 1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("revoked-" + i, 5000);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("valid-" + i, 5000)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    @Test
+    void evictExpiredDropsWholeBuckets() {
+        RevocationBloomFilter filter = new RevocationBloomFilter(BUCKET_MILLIS, 100, 0.01);
+        filter.add("old", 1500);
+        filter.add("current", 2500);
+        filter.add("future", 3500);
+
+        filter.evictExpired(2100);
+
+        assertThat(filter.bucketCount()).isEqualTo(2);
+        assertThat(filter.mightContain("old", 1500)).isFalse();
+        assertThat(filter.mightContain("current", 2500)).isTrue();
+        assertThat(filter.mightContain("future", 3500)).isTrue();
+    }
+}
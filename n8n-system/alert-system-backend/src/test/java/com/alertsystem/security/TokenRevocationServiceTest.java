@@ -0,0 +1,160 @@
+package com.alertsystem.security;
+
+import com.alertsystem.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Token 撤銷服務測試
+ * Redis 撤銷集合以記憶體實作代替，多個服務實例共用以模擬多節點：
+ * 撤銷後布隆過濾器命中再向有序集合確認；未撤銷的 token 不查詢 Redis；
+ * 遺失廣播的節點由增量同步補上撤銷記錄。
+ */
+class TokenRevocationServiceTest {
+
+    private static final String SECRET = "YWxlcnQtc3lzdGVtLXNlY3JldC1rZXktZm9yLWp3dC10b2tlbi1nZW5lcmF0aW9u";
+
+    private final Map<String, Double> revocations = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, String> zSetOperations = mock(ZSetOperations.class);
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 604800000L);
+        jwtUtil.init();
+
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.add(eq(TokenRevocationService.REVOCATION_KEY), anyString(), anyDouble()))
+                .thenAnswer(invocation -> revocations.put(invocation.getArgument(1), invocation.getArgument(2)) == null);
+        when(zSetOperations.score(eq(TokenRevocationService.REVOCATION_KEY), anyString()))
+                .thenAnswer(invocation -> revocations.get((String) invocation.getArgument(1)));
+        when(zSetOperations.rangeByScoreWithScores(eq(TokenRevocationService.REVOCATION_KEY), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> {
+                    double min = invocation.getArgument(1);
+                    return revocations.entrySet().stream()
+                            .filter(entry -> entry.getValue() >= min)
+                            .map(entry -> new DefaultTypedTuple<>(entry.getKey(), entry.getValue()))
+                            .collect(Collectors.<ZSetOperations.TypedTuple<String>>toSet());
+                });
+    }
+
+    @Test
+    void revokedTokenIsConfirmedInRedis() {
+        // 關閉近端緩存，每次布隆命中都需向 Redis 確認
+        TokenRevocationService service = node(0);
+        String revoked = jwtUtil.generateToken("alice");
+        String valid = jwtUtil.generateToken("bob");
+
+        service.revoke(revoked);
+
+        assertThat(service.isRevoked(revoked, claims(revoked))).isTrue();
+        verify(zSetOperations, times(1)).score(eq(TokenRevocationService.REVOCATION_KEY), anyString());
+        // 布隆過濾器未命中時不查詢 Redis
+        assertThat(service.isRevoked(valid, claims(valid))).isFalse();
+        verify(zSetOperations, times(1)).score(eq(TokenRevocationService.REVOCATION_KEY), anyString());
+    }
+
+    @Test
+    void unconfirmedBloomHitIsTreatedAsValid() {
+        TokenRevocationService service = node(0);
+        String token = jwtUtil.generateToken("alice");
+        service.revoke(token);
+
+        // 布隆命中但有序集合中沒有記錄，視為誤報
+        revocations.clear();
+
+        assertThat(service.isRevoked(token, claims(token))).isFalse();
+    }
+
+    @Test
+    void redisFailureDuringConfirmationFailsClosed() {
+        TokenRevocationService service = node(0);
+        String token = jwtUtil.generateToken("alice");
+        service.revoke(token);
+        when(zSetOperations.score(eq(TokenRevocationService.REVOCATION_KEY), anyString()))
+                .thenThrow(new RedisConnectionFailureException("Redis 不可用"));
+
+        assertThat(service.isRevoked(token, claims(token))).isTrue();
+    }
+
+    @Test
+    void broadcastMarksTokenRevokedOnOtherNodes() {
+        TokenRevocationService origin = node(600000);
+        TokenRevocationService peer = node(600000);
+        String token = jwtUtil.generateToken("alice");
+
+        origin.revoke(token);
+        String member = revocations.keySet().iterator().next();
+        peer.onMessage(new DefaultMessage(TokenRevocationService.REVOCATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                member.getBytes(StandardCharsets.UTF_8)), null);
+
+        assertThat(peer.isRevoked(token, claims(token))).isTrue();
+    }
+
+    @Test
+    void missedBroadcastIsRecoveredByIncrementalSync() {
+        TokenRevocationService origin = node(600000);
+        TokenRevocationService peer = node(600000);
+        String first = jwtUtil.generateToken("alice");
+        String second = jwtUtil.generateToken("bob");
+
+        origin.revoke(first);
+        assertThat(peer.isRevoked(first, claims(first))).isFalse();
+
+        peer.syncRevocations();
+        assertThat(peer.isRevoked(first, claims(first))).isTrue();
+
+        // 之後的同步只讀取上次同步時間（回溯一分鐘）之後的記錄
+        origin.revoke(second);
+        peer.syncRevocations();
+        assertThat(peer.isRevoked(second, claims(second))).isTrue();
+        verify(zSetOperations).rangeByScoreWithScores(eq(TokenRevocationService.REVOCATION_KEY), eq(0.0), anyDouble());
+        verify(zSetOperations, times(2)).rangeByScoreWithScores(eq(TokenRevocationService.REVOCATION_KEY),
+                anyDouble(), anyDouble());
+        assertThat(revocations.keySet()).hasSize(2);
+    }
+
+    private TokenRevocationService node(long nearCacheTtl) {
+        TokenRevocationService service = new TokenRevocationService(redisTemplate,
+                mock(RedisMessageListenerContainer.class), jwtUtil);
+        ReflectionTestUtils.setField(service, "bucketMillis", 3600000L);
+        ReflectionTestUtils.setField(service, "expectedInsertions", 1000);
+        ReflectionTestUtils.setField(service, "falsePositiveRate", 0.001);
+        ReflectionTestUtils.setField(service, "maxTokenLifetime", 604800000L);
+        ReflectionTestUtils.setField(service, "nearCacheMaxSize", 1000L);
+        ReflectionTestUtils.setField(service, "nearCacheTtl", nearCacheTtl);
+        service.init();
+        return service;
+    }
+
+    private Claims claims(String token) {
+        return jwtUtil.parseClaims(token);
+    }
+}
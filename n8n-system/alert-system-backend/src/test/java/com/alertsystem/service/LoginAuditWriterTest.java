@@ -0,0 +1,56 @@
+package com.alertsystem.service;
+
+import com.alertsystem.entity.LoginLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 登入日誌批量寫入測試
+ * 節流攔截時只有嘗試的用戶名，寫入時由資料庫解析用戶ID；用戶名不存在時用戶ID為空。
+ */
+class LoginAuditWriterTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private LoginAuditWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(50))");
+        jdbcTemplate.execute("""
+                CREATE TABLE login_logs (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, login_time TIMESTAMP,
+                    ip_address VARCHAR(45), user_agent VARCHAR(255), status VARCHAR(20))
+                """);
+        jdbcTemplate.update("INSERT INTO users (id, username) VALUES (7, 'alice')");
+        writer = new LoginAuditWriter(jdbcTemplate, new SimpleMeterRegistry(), 100,
+                LoginAuditWriter.OverflowPolicy.DROP, 1000, 100, 50);
+        writer.start();
+    }
+
+    @Test
+    void blockedAttemptResolvesUserIdFromUsername() throws InterruptedException {
+        writer.record(null, "alice", "10.0.0.1", "curl", LoginLog.LoginStatus.BLOCKED);
+        writer.record(null, "mallory", "10.0.0.2", "curl", LoginLog.LoginStatus.BLOCKED);
+        writer.record(7L, "alice", "10.0.0.1", "curl", LoginLog.LoginStatus.SUCCESS);
+
+        // 關閉時寫完佇列中剩餘的日誌
+        writer.stop();
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT user_id, ip_address, status FROM login_logs ORDER BY id");
+        assertThat(rows).extracting(row -> row.get("USER_ID")).containsExactly(7L, null, 7L);
+        assertThat(rows).extracting(row -> row.get("STATUS")).containsExactly("BLOCKED", "BLOCKED", "SUCCESS");
+        assertThat(rows).extracting(row -> row.get("IP_ADDRESS")).containsExactly("10.0.0.1", "10.0.0.2", "10.0.0.1");
+    }
+}
@@ -0,0 +1,94 @@
+package com.alertsystem.service.impl;
+
+import com.alertsystem.dto.auth.LoginResponse;
+import com.alertsystem.entity.Role;
+import com.alertsystem.entity.User;
+import com.alertsystem.repository.MenuRepository;
+import com.alertsystem.repository.RoleRepository;
+import com.alertsystem.repository.UserRepository;
+import com.alertsystem.security.TokenRevocationService;
+import com.alertsystem.service.LoginAuditWriter;
+import com.alertsystem.service.LoginThrottleService;
+import com.alertsystem.service.PermissionSyncService;
+import com.alertsystem.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Refresh token 輪換測試
+ * 換發成功後撤銷提交的 refresh token；非啟用狀態的用戶不換發。
+ */
+class AuthServiceImplRefreshTest {
+
+    private static final String SECRET = "YWxlcnQtc3lzdGVtLXNlY3JldC1rZXktZm9yLWp3dC10b2tlbi1nZW5lcmF0aW9u";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MenuRepository menuRepository = mock(MenuRepository.class);
+    private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+    private JwtUtil jwtUtil;
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 604800000L);
+        jwtUtil.init();
+
+        authService = new AuthServiceImpl(userRepository, mock(RoleRepository.class), mock(LoginAuditWriter.class),
+                mock(LoginThrottleService.class), menuRepository, mock(PasswordEncoder.class), jwtUtil,
+                mock(AuthenticationManager.class), mock(PermissionSyncService.class), tokenRevocationService);
+    }
+
+    @Test
+    void refreshRevokesPresentedToken() {
+        when(userRepository.findByUsernameWithRoles("alice")).thenReturn(Optional.of(user(User.UserStatus.ACTIVE)));
+        String refreshToken = jwtUtil.generateRefreshToken("alice");
+
+        LoginResponse response = authService.refreshToken(refreshToken);
+
+        assertThat(response.getRefreshToken()).isNotEqualTo(refreshToken);
+        verify(tokenRevocationService).revoke(refreshToken);
+    }
+
+    @Test
+    void refreshRejectsInactiveUser() {
+        when(userRepository.findByUsernameWithRoles("alice")).thenReturn(Optional.of(user(User.UserStatus.LOCKED)));
+        String refreshToken = jwtUtil.generateRefreshToken("alice");
+
+        assertThatThrownBy(() -> authService.refreshToken(refreshToken))
+                .hasMessage("用戶帳號已被停用");
+        verify(tokenRevocationService, never()).revoke(anyString());
+        verify(menuRepository, never()).findPermissionsByUserId(any());
+    }
+
+    private static User user(User.UserStatus status) {
+        Role role = new Role();
+        role.setId(1L);
+        role.setName("USER");
+        User user = User.builder()
+                .username("alice")
+                .email("alice@example.com")
+                .status(status)
+                .roles(Set.of(role))
+                .build();
+        user.setId(1L);
+        return user;
+    }
+}
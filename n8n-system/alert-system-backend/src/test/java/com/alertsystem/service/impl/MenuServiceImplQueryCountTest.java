@@ -0,0 +1,123 @@
+package com.alertsystem.service.impl;
+
+import com.alertsystem.dto.menu.MenuDTO;
+import com.alertsystem.entity.Menu;
+import com.alertsystem.repository.RoleAssignmentJdbcRepository;
+import com.alertsystem.repository.TableStatisticsRepository;
+import com.alertsystem.search.SubstringSearchEngine;
+import com.alertsystem.service.MenuTreeCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 選單 DTO 轉換的 SQL 語句數量測試
+ * 子選單存在與否以一次分組查詢取得，語句數量不隨選單數量增長。
+ */
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.hbm2ddl.default_constraint_mode=NO_CONSTRAINT",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+    "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@Import(MenuServiceImpl.class)
+class MenuServiceImplQueryCountTest {
+
+    private static final int ROOT_COUNT = 10;
+    private static final int CHILDREN_PER_ROOT = 3;
+
+    @Autowired
+    private MenuServiceImpl menuService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockBean
+    private RoleAssignmentJdbcRepository roleAssignmentRepository;
+
+    @MockBean
+    private TableStatisticsRepository tableStatisticsRepository;
+
+    @MockBean
+    private MenuTreeCacheService menuTreeCacheService;
+
+    @MockBean
+    private SubstringSearchEngine searchEngine;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ROOT_COUNT; i++) {
+            Menu root = entityManager.persist(menu(0L, "root-" + i, 0, i));
+            for (int j = 0; j < CHILDREN_PER_ROOT; j++) {
+                entityManager.persist(menu(root.getId(), "child-" + i + "-" + j, 1, j));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllMenuTreeUsesBoundedStatements() {
+        List<MenuDTO> tree = menuService.getAllMenuTree();
+
+        assertThat(tree).hasSize(ROOT_COUNT);
+        assertThat(tree).allSatisfy(root -> {
+            assertThat(root.getHasChildren()).isTrue();
+            assertThat(root.getChildren()).hasSize(CHILDREN_PER_ROOT)
+                .allSatisfy(child -> assertThat(child.getHasChildren()).isFalse());
+        });
+        // 選單列表 + 子選單分組查詢
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void getMenuListUsesBoundedStatements() {
+        Page<MenuDTO> page = menuService.getMenuList(PageRequest.of(0, 20));
+
+        assertThat(page.getContent()).hasSize(20);
+        // 分頁查詢 + 總數 + 子選單分組查詢
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getMenusByTypeUsesBoundedStatements() {
+        List<MenuDTO> children = menuService.getMenusByType(1);
+
+        assertThat(children).hasSize(ROOT_COUNT * CHILDREN_PER_ROOT);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    private static Menu menu(Long parentId, String name, int type, int sortOrder) {
+        Menu menu = Menu.builder()
+            .parentId(parentId)
+            .name(name)
+            .type(type)
+            .sortOrder(sortOrder)
+            .build();
+        menu.setCreatedAt(LocalDateTime.now());
+        return menu;
+    }
+}
@@ -0,0 +1,80 @@
+package com.alertsystem.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 驗證基準測試
+ * legacy 重現改造前每個請求的流程：每次調用都重建簽名金鑰與解析器，
+ * 並為 validateToken、取用戶名及檢查有效期各驗簽一次；
+ * parseOnce 為現行流程：預建解析器只驗簽一次，之後只讀取已解析的 claims。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "YWxlcnQtc3lzdGVtLXNlY3JldC1rZXktZm9yLWp3dC10b2tlbi1nZW5lcmF0aW9u";
+
+    private JwtUtil jwtUtil;
+    private String token;
+    private String username;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86400000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 604800000L);
+        jwtUtil.init();
+
+        username = "benchmark-user";
+        token = jwtUtil.generateToken(username, Map.of(
+                JwtUtil.CLAIM_USER_ID, 1L,
+                JwtUtil.CLAIM_ROLE_IDS, List.of(1L, 2L),
+                JwtUtil.CLAIM_AUTHORITIES, List.of("ROLE_ADMIN", "system:menu:list")));
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        if (legacyParse(token) == null) {
+            return false;
+        }
+        String subject = legacyParse(token).getSubject();
+        return subject.equals(username) && !legacyParse(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean parseOnce() {
+        Claims claims = jwtUtil.parseClaims(token);
+        return jwtUtil.validateClaims(claims, claims != null ? claims.getSubject() : null);
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}